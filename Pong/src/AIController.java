@@ -0,0 +1,224 @@
+/**
+ * Date: 10/17/2026
+ */
+public class AIController implements PaddleController
+{
+    /**
+     * How well the AI plays.
+     */
+    public enum Difficulty
+    {
+        /** Aims up to 90 pixels off, often missing, and only reacts once the ball is in its half */
+        EASY(90, 0.5, 12, false),
+        /** Aims up to 55 pixels off, sometimes just missing, and reacts once the ball is most of the way across */
+        NORMAL(55, 0.8, 8, false),
+        /** Aims at the exact landing point, and works out the return off the other paddle while the ball is still moving away */
+        HARD(0, 1.0, 4, true);
+
+        /** The largest number of pixels the AI aims away from where the ball will land */
+        private int aimError;
+        /** The fraction of the field the ball must be within before the AI reacts to it */
+        private double reactionRange;
+        /** The number of pixels the paddle can be off target before it moves */
+        private int deadZone;
+        /** Determines if the AI predicts the return of a ball moving away from it */
+        private boolean anticipates;
+
+        /**
+         * Create a difficulty.
+         * @param aimError The largest number of pixels the AI aims away from where the ball will land.
+         * @param reactionRange The fraction of the field the ball must be within before the AI reacts to it.
+         * @param deadZone The number of pixels the paddle can be off target before it moves.
+         * @param anticipates Determines if the AI predicts the return of a ball moving away from it.
+         */
+        Difficulty(int aimError, double reactionRange, int deadZone, boolean anticipates)
+        {
+            this.aimError = aimError;
+            this.reactionRange = reactionRange;
+            this.deadZone = deadZone;
+            this.anticipates = anticipates;
+        }
+    }
+
+    /** How well the AI plays */
+    private Difficulty difficulty;
+
+    /**
+     * An AIController moves a paddle towards where the ball will reach it. The landing point is worked out
+     * in closed form, folding the ball's straight line path back into the field for however many times it
+     * bounces off the top and bottom, so a decision takes a few arithmetic operations however far away the ball is.
+     * The aim error is hashed from the ball's path rather than drawn from the simulation's random numbers, so it
+     * stays the same for a whole approach and an AI game plays out the same as a replay of it.
+     * @param difficulty How well the AI plays.
+     */
+    public AIController(Difficulty difficulty)
+    {
+        this.difficulty = difficulty;
+    }
+
+    /**
+     * Decide which way to move a paddle to meet the ball.
+     * @param sim The simulation the paddle is in.
+     * @param leftSide Determines whether the controller is moving the left or right paddle.
+     * @return A bitmask of UP and DOWN.
+     */
+    public int decide(PongSimulation sim, boolean leftSide)
+    {
+        Ball ball = sim.getBall();
+        Paddle paddle = leftSide ? sim.getLeftPaddle() : sim.getRightPaddle();
+        boolean approaching = (ball.getXStep() < 0) == leftSide;
+
+        //Head back to the middle unless there is a ball to meet
+        int target = PongSimulation.PHEIGHT/2;
+        int distance = getDistance(sim, leftSide, approaching);
+        if ((distance >= 0) && (approaching || difficulty.anticipates)
+                && (distance <= difficulty.reactionRange * PongSimulation.PWIDTH))
+        {
+            int landingY = approaching ? predictLanding(ball, distance) : predictReturn(sim, leftSide);
+            target = landingY + ball.getDiameter()/2 + getAimError(landingY, ball, sim.getSeed() + sim.getCurrentRally());
+        }
+
+        //Move the middle of the paddle towards the target
+        int offset = target - (paddle.getYPos() + paddle.getHeight()/2);
+        if (offset < -difficulty.deadZone)
+        {
+            return UP;
+        }
+        else if (offset > difficulty.deadZone)
+        {
+            return DOWN;
+        }
+        return 0;
+    }
+
+    /**
+     * Get the horizontal distance the ball travels before it reaches a paddle's face. A ball moving away is
+     * counted as going to the other paddle's face and back across the field.
+     * @param sim The simulation.
+     * @param leftSide Determines whether the distance is to the left or right paddle.
+     * @param approaching Determines if the ball is moving towards the paddle.
+     * @return The distance, or -1 if the ball is already past the paddle.
+     */
+    static int getDistance(PongSimulation sim, boolean leftSide, boolean approaching)
+    {
+        Ball ball = sim.getBall();
+        int leftFace = sim.getLeftPaddle().getXPos() + sim.getLeftPaddle().getWidth();
+        int rightFace = sim.getRightPaddle().getXPos() - ball.getDiameter();
+
+        //The distance to the face the ball is moving towards, then across the field again if that isn't this paddle's
+        int distance = (ball.getXStep() < 0) ? ball.getXPos() - leftFace : rightFace - ball.getXPos();
+        if (distance < 0)
+        {
+            return -1;
+        }
+        return approaching ? distance : distance + (rightFace - leftFace);
+    }
+
+    /**
+     * Predict the height of the top of the ball once it has travelled a horizontal distance, bouncing off the
+     * top and bottom of the field on the way. This is the same fold the ball itself moves with, kept scaled by
+     * the horizontal step so it is exact in integers.
+     * @param ball The ball.
+     * @param distance The horizontal distance.
+     * @return The y-coordinate of the top of the ball.
+     */
+    static int predictLanding(Ball ball, int distance)
+    {
+        return predictLanding(ball.getYPos(), ball.getXStep(), ball.getYStep(), distance, ball.getDiameter());
+    }
+
+    /**
+     * Predict the height of the top of a ball once it has travelled a horizontal distance from a given height
+     * with the given steps, bouncing off the top and bottom of the field on the way.
+     * @param y The y-coordinate of the top of the ball to start from.
+     * @param xStep The ball's xStep.
+     * @param yStep The ball's yStep.
+     * @param distance The horizontal distance.
+     * @param diameter The diameter of the ball.
+     * @return The y-coordinate of the top of the ball.
+     */
+    private static int predictLanding(int y, int xStep, int yStep, int distance, int diameter)
+    {
+        long xTravel = Math.max(1, Math.abs(xStep));
+        long scaledTop = (long) y * xTravel + (long) yStep * distance;
+        long scaledMax = (long) (PongSimulation.PHEIGHT - diameter) * xTravel;
+        return (int) (Ball.foldIntoField(scaledTop, scaledMax)/xTravel);
+    }
+
+    /**
+     * Predict the height of the top of a ball moving away once it comes back to a paddle. The ball's landing on
+     * the other paddle is predicted, along with where that paddle will be if it heads straight for the ball as
+     * fast as it can, and the return is worked out with the same angle and speed the ball deflects with.
+     * @param sim The simulation.
+     * @param leftSide Determines whether the ball is coming back to the left or right paddle.
+     * @return The y-coordinate of the top of the ball.
+     */
+    static int predictReturn(PongSimulation sim, boolean leftSide)
+    {
+        Ball ball = sim.getBall();
+        Paddle other = leftSide ? sim.getRightPaddle() : sim.getLeftPaddle();
+        int leftFace = sim.getLeftPaddle().getXPos() + sim.getLeftPaddle().getWidth();
+        int rightFace = sim.getRightPaddle().getXPos() - ball.getDiameter();
+
+        //Where the ball reaches the other paddle, and how many updates it takes to get there
+        int distance = Math.max(0, getDistance(sim, !leftSide, true));
+        int hitY = predictLanding(ball, distance);
+        int xTravel = Math.max(1, Math.abs(ball.getXStep()));
+        long updates = (distance + xTravel - 1)/xTravel;
+
+        //Move the other paddle's middle towards the ball's, limited by its speed and the field
+        int target = hitY + ball.getDiameter()/2 - other.getHeight()/2;
+        long reach = updates * other.getYStep();
+        int otherY = (int) Math.max(other.getYPos() - reach, Math.min(other.getYPos() + reach, target));
+        otherY = Math.max(0, Math.min(PongSimulation.PHEIGHT - other.getHeight(), otherY));
+
+        //The return counts as the next hit of the rally, then crosses the whole field
+        int angle = ball.getReturnAngle(hitY, otherY, other.getHeight());
+        int rallyHits = sim.getCurrentRally() + 1;
+        return predictLanding(hitY, ball.getReturnXSpeed(angle, rallyHits), ball.getReturnYStep(angle, rallyHits),
+                rightFace - leftFace, ball.getDiameter());
+    }
+
+    /**
+     * Get how far the AI aims away from where the ball will land. The error is hashed from the landing point
+     * and the ball's steps, which only change when the ball bounces off a paddle, so the aim holds steady.
+     * The game's seed and the number of hits in the rally are mixed in so that games with different seeds
+     * miss in different places, and a rally can't settle into the same shots over and over.
+     * @param landingY The y-coordinate the ball will land at.
+     * @param ball The ball.
+     * @param seed The seed of the game plus the number of hits in the rally.
+     * @return The aim error (in pixels).
+     */
+    private int getAimError(int landingY, Ball ball, long seed)
+    {
+        if (difficulty.aimError == 0)
+        {
+            return 0;
+        }
+
+        //Mix the bits with the MurmurHash3 finalizer
+        int h = landingY * 0x9E3779B1 ^ ball.getXStep() * 0x85EBCA6B ^ ball.getYStep() ^ (int) (seed ^ (seed >>> 32));
+        h = (h ^ (h >>> 16)) * 0x85EBCA6B;
+        h = (h ^ (h >>> 13)) * 0xC2B2AE35;
+        h = h ^ (h >>> 16);
+        return Math.floorMod(h, 2 * difficulty.aimError + 1) - difficulty.aimError;
+    }
+
+    /**
+     * Get the controller with the given name, "human" is the keyboard and anything else is an AI difficulty.
+     * @param name The name of the controller, in any case.
+     * @param keyManager The KeyManager a human controller reads.
+     * @return The controller, the keyboard if the name is not recognized.
+     */
+    public static PaddleController fromName(String name, KeyManager keyManager)
+    {
+        for (Difficulty difficulty : Difficulty.values())
+        {
+            if (difficulty.name().equalsIgnoreCase(name))
+            {
+                return new AIController(difficulty);
+            }
+        }
+        return new KeyboardController(keyManager);
+    }
+}
@@ -1,5 +1,3 @@
-import java.awt.*;
-
 /**
  * @author Logan Karstetter
  * Date: 01/26/2018
@@ -7,22 +5,59 @@ import java.awt.*;
 public class Ball
 {
     /** The radius of the ball */
-    private int bRadius = 10;
+    private final int bRadius = PongConfig.get().ballRadius;
     /** The x-coordinate of the ball */
     private int xPos;
     /** The y-coordinate of the ball */
     private int yPos;
+    /** The x-coordinate of the ball before the last update */
+    private int prevXPos;
+    /** The y-coordinate of the ball before the last update */
+    private int prevYPos;
 
     /** The number of pixels the ball will move horizontally per game loop/cycle */
-    private int xStep = 10;
+    private int xStep = PongConfig.get().ballXStep;
     /** The number of pixels the ball will move vertically per game loop/cycle */
-    private int yStep = 10;
+    private int yStep = PongConfig.get().ballYStep;
+
+    /** The max number of times the ball can bounce off the paddles in a single update */
+    private static final int MAX_BOUNCES = 8;
+
+    /** The number of angles the ball can leave a paddle at either side of straight across */
+    private static final int ANGLE_STEPS = 8;
+    /** The steepest angle the ball can leave a paddle at, hit at its very end (in degrees) */
+    private static final double MAX_ANGLE = 60.0;
+    /** The cosine and sine of each angle the ball can leave a paddle at, from straight up the field to straight
+     * down it, in 16.16 fixed-point. They come from StrictMath so they are the same on every JVM and CPU */
+    private static final int[] COS = new int[2 * ANGLE_STEPS + 1];
+    private static final int[] SIN = new int[2 * ANGLE_STEPS + 1];
+
+    static
+    {
+        for (int i = -ANGLE_STEPS; i <= ANGLE_STEPS; i++)
+        {
+            double angle = StrictMath.toRadians(MAX_ANGLE * i/ANGLE_STEPS);
+            COS[i + ANGLE_STEPS] = (int) StrictMath.round(StrictMath.cos(angle) * 65536.0);
+            SIN[i + ANGLE_STEPS] = (int) StrictMath.round(StrictMath.sin(angle) * 65536.0);
+        }
+    }
+
+    /** The xStep and yStep the ball is served with */
+    private final int serveXStep = PongConfig.get().ballXStep;
+    private final int serveYStep = PongConfig.get().ballYStep;
+    /** The speed the ball is served at, the speed it gains per paddle hit, and its max speed (in 1/256 pixels per update) */
+    private final int serveSpeed;
+    private final int speedUp;
+    private final int maxSpeed;
 
-    /** The color of the ball */
-    private Color bColor = Color.WHITE;
+    /** The y-coordinate of the top of the ball when it last hit a paddle */
+    private int hitYPos;
+    /** The number of times the ball crossed the field on its way to the paddle it last hit, negative if going up */
+    private int hitCrossings;
 
-    /** A reference to the PongPanel */
-    private PongPanel pPanel;
+
+    /** A reference to the PongSimulation */
+    private PongSimulation sim;
     /** A reference to the leftPaddle */
     private Paddle leftPaddle;
     /** A reference to the rightPaddle */
@@ -30,118 +65,377 @@ public class Ball
 
     /**
      * Creates a ball to be used in a game of Pong.
-     * @param pPanel The PongPanel this ball resides within.
-     * @param leftPaddle The left paddle in the Pong Panel.
-     * @param rightPaddle The right paddle in the Pong Panel.
+     * @param sim The PongSimulation this ball resides within.
+     * @param leftPaddle The left paddle in the simulation.
+     * @param rightPaddle The right paddle in the simulation.
      */
-    public Ball(PongPanel pPanel, Paddle leftPaddle, Paddle rightPaddle)
+    public Ball(PongSimulation sim, Paddle leftPaddle, Paddle rightPaddle)
     {
-        //Store the PongPanel
-        this.pPanel = pPanel;
+        //Store the PongSimulation
+        this.sim = sim;
         this.leftPaddle = leftPaddle;
         this.rightPaddle = rightPaddle;
 
+        //Work out the speeds in 24.8 fixed-point, StrictMath keeps the rounding the same everywhere
+        serveSpeed = (int) StrictMath.round(StrictMath.hypot(serveXStep, serveYStep) * 256.0);
+        speedUp = serveSpeed * PongConfig.get().ballSpeedUp/100;
+        maxSpeed = serveSpeed * PongConfig.get().ballMaxSpeed/100;
+
         //Set the ball's position
         resetBall();
     }
 
     /**
-     * Move the ball by adding its xStep and yStep values to its current position.
+     * Move the ball by its xStep and yStep values. The move is swept rather than checked at the end,
+     * so the ball bounces off any paddle or wall that it meets along the way at the exact point it
+     * reaches it, no matter how large the steps are. A paddle sends the ball back faster, at an angle
+     * that depends on where it was hit, and the ball covers the rest of the update at its new velocity.
      */
     public void update()
     {
-        //Check if the ball has hit anything or gone off-screen
-        hasHitPaddle();
-        hasHitWall();
+        //Remember where the ball was so rendering can interpolate between updates
+        prevXPos = xPos;
+        prevYPos = yPos;
+
+        //The horizontal distance the ball has left to cover this update, and the vertical distance
+        int xTravel = Math.abs(xStep);
+        int yTravel = yStep;
+
+        //Move the ball from paddle to paddle until it runs out of distance or misses
+        for (int bounces = 0; bounces < MAX_BOUNCES; bounces++)
+        {
+            int distance = hasHitPaddle(xTravel);
+            if (distance < 0)
+            {
+                break;
+            }
+            //Move the ball to where it met the paddle
+            xPos = xPos + Integer.signum(xStep) * distance;
+            yPos = hitYPos;
+            Paddle paddle = (xStep < 0) ? leftPaddle : rightPaddle;
+            //Log the walls the ball bounced off on its way to the paddle, they come before the hit
+            logWallBounces(hitCrossings, yStep > 0);
+            sim.paddleHit();
+
+            //Send the ball back, scaling the distance left by the change in speed so the time left stays the same
+            int oldXTravel = Math.abs(xStep);
+            deflect(paddle);
+            sim.logEvent(TelemetryLog.PADDLE_HIT, (paddle == leftPaddle) ? TelemetryLog.LEFT : TelemetryLog.RIGHT, sim.getCurrentRally());
+            xTravel = (int) ((long) (xTravel - distance) * Math.abs(xStep)/oldXTravel);
+            //The ball moves yStep pixels for every xStep pixels across
+            yTravel = (int) Math.floorDiv((long) yStep * xTravel, Math.abs(xStep));
+        }
+        //Move the rest of the way
+        xPos = xPos + Integer.signum(xStep) * xTravel;
+
+        //Move the ball vertically and check if it has bounced or gone off-screen
+        hasHitWall(yTravel);
+    }
+
+    /**
+     * Send the ball back from a paddle it has just hit. The further from the middle of the paddle the ball
+     * hits, the steeper the angle it leaves at, and each hit in a rally makes the ball faster up to its max
+     * speed. The velocity is worked out in fixed-point from the angle tables, so it is exact everywhere.
+     * @param paddle The paddle the ball hit.
+     */
+    private void deflect(Paddle paddle)
+    {
+        int angle = getReturnAngle(hitYPos, paddle.getYPos(), paddle.getHeight());
+        int xMagnitude = getReturnXSpeed(angle, sim.getCurrentRally());
+        xStep = (xStep < 0) ? xMagnitude : -xMagnitude;
+        yStep = getReturnYStep(angle, sim.getCurrentRally());
+    }
+
+    /**
+     * Get the angle the ball leaves a paddle at, from where on the paddle it hits. This is also used
+     * by the AIController to predict a return before it happens.
+     * @param hitY The y-coordinate of the top of the ball when it reaches the paddle.
+     * @param paddleY The y-coordinate of the top of the paddle.
+     * @param paddleHeight The height of the paddle.
+     * @return The angle, as a step from -ANGLE_STEPS (steepest up) to ANGLE_STEPS (steepest down).
+     */
+    int getReturnAngle(int hitY, int paddleY, int paddleHeight)
+    {
+        //Compare the middles of the ball and paddle, doubled to keep them in integers. They can be at most
+        //this far apart while still touching, which is the steepest angle
+        int offset = (2 * hitY + 2 * bRadius) - (2 * paddleY + paddleHeight);
+        int reach = paddleHeight + 2 * bRadius;
+        return Math.max(-ANGLE_STEPS, Math.min(ANGLE_STEPS, offset * ANGLE_STEPS/reach));
+    }
+
+    /**
+     * Get the horizontal speed the ball leaves a paddle with.
+     * @param angle The angle from getReturnAngle().
+     * @param rallyHits The number of hits in the rally, including this one.
+     * @return The size of the new xStep, always at least a pixel per update.
+     */
+    int getReturnXSpeed(int angle, int rallyHits)
+    {
+        //The speed grows with each hit of this rally, 24.8 fixed-point times 16.16 gives 8.24
+        long speed = Math.min(maxSpeed, serveSpeed + (long) speedUp * rallyHits);
+        return Math.max(1, (int) ((speed * COS[angle + ANGLE_STEPS] + (1 << 23)) >> 24));
+    }
+
+    /**
+     * Get the yStep the ball leaves a paddle with.
+     * @param angle The angle from getReturnAngle().
+     * @param rallyHits The number of hits in the rally, including this one.
+     * @return The new yStep.
+     */
+    int getReturnYStep(int angle, int rallyHits)
+    {
+        long speed = Math.min(maxSpeed, serveSpeed + (long) speedUp * rallyHits);
+        int yMagnitude = (int) ((speed * Math.abs(SIN[angle + ANGLE_STEPS]) + (1 << 23)) >> 24);
+        return (angle < 0) ? -yMagnitude : yMagnitude;
+    }
+
+    /**
+     * Serve the ball from the middle as it is at the start of a game, in the first direction it would be served in.
+     */
+    void reset()
+    {
+        xStep = serveXStep;
+        yStep = serveYStep;
+        resetBall();
+    }
+
+    /**
+     * Make the ball's previous position its current position, so it is drawn
+     * standing still while it isn't being updated.
+     */
+    public void settle()
+    {
+        prevXPos = xPos;
+        prevYPos = yPos;
+    }
+
+    /**
+     * Move the ball straight to a position and direction, this is used to show a state received over the network.
+     * The ball is interpolated from where it was to the new position, unless it jumped back to the center.
+     * @param xPos The new x-coordinate of the ball.
+     * @param yPos The new y-coordinate of the ball.
+     * @param xStep The new xStep.
+     * @param yStep The new yStep.
+     */
+    void setState(int xPos, int yPos, int xStep, int yStep)
+    {
+        boolean reset = (xPos == PongSimulation.PWIDTH/2 - bRadius) && (yPos == PongSimulation.PHEIGHT/2 - bRadius);
+        prevXPos = reset ? xPos : this.xPos;
+        prevYPos = reset ? yPos : this.yPos;
+        this.xPos = xPos;
+        this.yPos = yPos;
+        this.xStep = xStep;
+        this.yStep = yStep;
+    }
+
+    /**
+     * Get the x-coordinate the ball is drawn at, interpolated between its previous and current position.
+     * @param interpolation How far the time is between the last update and the next (0.0 to 1.0).
+     * @return The x-coordinate to draw the ball at.
+     */
+    public int getDrawX(double interpolation)
+    {
+        return (int) Math.round(prevXPos + (xPos - prevXPos) * interpolation);
+    }
+
+    /**
+     * Get the y-coordinate the ball is drawn at, interpolated between its previous and current position.
+     * @param interpolation How far the time is between the last update and the next (0.0 to 1.0).
+     * @return The y-coordinate to draw the ball at.
+     */
+    public int getDrawY(double interpolation)
+    {
+        return (int) Math.round(prevYPos + (yPos - prevYPos) * interpolation);
+    }
+
+    /**
+     * Get the diameter of the ball.
+     * @return The diameter of the ball.
+     */
+    public int getDiameter()
+    {
+        return bRadius * 2;
+    }
+
+    /**
+     * Get the x-coordinate of the ball.
+     * @return The x-coordinate of the ball.
+     */
+    public int getXPos()
+    {
+        return xPos;
+    }
+
+    /**
+     * Get the y-coordinate of the ball.
+     * @return The y-coordinate of the ball.
+     */
+    public int getYPos()
+    {
+        return yPos;
+    }
 
-        //Move the ball
-        xPos = xPos + xStep;
-        yPos = yPos + yStep;
+    /**
+     * Get the number of pixels the ball moves horizontally per update.
+     * @return The ball's xStep.
+     */
+    public int getXStep()
+    {
+        return xStep;
     }
 
     /**
-     * Draw the ball on the screen.
-     * @param dbGraphics The dbGraphics object from the PongPanel.
+     * Get the number of pixels the ball moves vertically per update.
+     * @return The ball's yStep.
      */
-    public void draw(Graphics dbGraphics)
+    public int getYStep()
     {
-        dbGraphics.setColor(bColor);
-        dbGraphics.fillOval(xPos, yPos, bRadius * 2, bRadius * 2);
+        return yStep;
     }
 
     /**
-     * Determines whether the ball has hit either paddle. If so, the ball's vertical and horizontal
-     * steps are inverted to make the ball appear to bounce off the paddle.
+     * Determines whether the ball hits the paddle it is moving towards before the end of this update.
+     * The ball's path is only checked against the paddle's front face, at the moment the ball reaches
+     * it, so a ball that is already behind a paddle can't bounce back into play. If it hits, the top of
+     * the ball at that moment is kept in hitYPos, and the walls it crossed to get there in hitCrossings.
+     * @param xTravel The horizontal distance the ball has left to move this update.
+     * @return The horizontal distance to the paddle if the ball hits it, otherwise -1.
      */
-    private void hasHitPaddle()
+    private int hasHitPaddle(int xTravel)
     {
-        //Get the collision box for the ball
-        Rectangle ballRect = new Rectangle(xPos, yPos, bRadius * 2, bRadius * 2);
+        int diameter = bRadius * 2;
+        Paddle paddle;
+        int distance;
 
-        //Check if the ball has hit the left paddle
-        if (ballRect.intersects(leftPaddle.getRectangle()))
+        //Measure the gap between the front of the ball and the face of the paddle it is moving towards
+        if (xStep < 0)
         {
-            //Move the ball in the other direction as if it bounced off the paddle
-            xStep = -xStep;
-            //Give the ball a boost to get it away from the paddle
-            xPos = xPos + Math.abs(xStep/2);
+            paddle = leftPaddle;
+            distance = xPos - (paddle.getXPos() + paddle.getWidth());
         }
-        else if (ballRect.intersects(rightPaddle.getRectangle()))
+        else
         {
-            //Move the ball in the other direction as if it bounced off the paddle
-            xStep = -xStep;
-            //Give the ball a boost to get it away from the paddle
-            xPos = xPos - Math.abs(xStep/2);
+            paddle = rightPaddle;
+            distance = paddle.getXPos() - (xPos + diameter);
+        }
+
+        //The ball is already past the paddle, or won't reach it this update
+        if ((xTravel == 0) || (distance < 0) || (distance > xTravel))
+        {
+            return -1;
+        }
+
+        //Find the top of the ball at the moment it reaches the paddle. The ball moves yStep pixels for every
+        //xStep pixels across, so the position is kept scaled by xStep to stay exact in integers
+        long xScale = Math.abs(xStep);
+        long scaledMaxY = (long) (PongSimulation.PHEIGHT - diameter) * xScale;
+        long unfoldedTop = (long) yPos * xScale + (long) yStep * distance;
+        long scaledTop = foldIntoField(unfoldedTop, scaledMaxY);
+
+        //Check if the ball overlaps the paddle vertically at that moment
+        if ((scaledTop < (long) (paddle.getYPos() + paddle.getHeight()) * xScale)
+                && ((long) paddle.getYPos() * xScale < scaledTop + (long) diameter * xScale))
+        {
+            hitYPos = (int) (scaledTop/xScale);
+            hitCrossings = (int) Math.floorDiv(unfoldedTop, scaledMaxY);
+            return distance;
         }
+        return -1;
     }
 
     /**
-     * Determines whether the ball has hit any of the walls. If so, the ball will either be reset
-     * (a point was scored) or the ball will bounce off the wall.
+     * Determines whether the ball has hit any of the walls. The ball is moved vertically, bouncing off
+     * the top and bottom of the panel as many times as it reaches them. If the ball has gone off-screen
+     * on the left or right a point is scored and the ball is reset.
+     * @param yMove The number of pixels to move the ball vertically, its yStep unless it hit a paddle.
      */
-    private void hasHitWall()
+    private void hasHitWall(int yMove)
     {
-        //Check if the ball has hit the top or bottom of the panel
-        if ((yPos <= 0) && (yStep < 0)) //yStep < 0 means the ball is moving upwards
-        {
-            //Bounce the ball
-            yStep = -yStep;
-        }
-        else if ((yPos + (bRadius * 2) >= PongPanel.PHEIGHT) && (yStep > 0)) //Ball is moving down
+        //The lowest the top of the ball can be while still on-screen
+        int maxY = PongSimulation.PHEIGHT - (bRadius * 2);
+
+        //Bounce the ball off the top and bottom of the panel, each bounce reverses the yStep
+        int unfoldedY = yPos + yMove;
+        yPos = (int) foldIntoField(unfoldedY, maxY);
+        int crossings = Math.floorDiv(unfoldedY, maxY);
+        if ((crossings & 1) != 0)
         {
             yStep = -yStep;
         }
-        else if ((xPos + (bRadius * 2) <= 0) && (xStep < 0)) //The ball has gone off-screen on the left
+        logWallBounces(crossings, yMove > 0);
+
+        if ((xPos + (bRadius * 2) <= 0) && (xStep < 0)) //The ball has gone off-screen on the left
         {
             //Score for the right paddle
-            pPanel.rightScored();
+            sim.rightScored();
             //Reset the ball
             resetBall();
         }
-        else if ((xPos >= PongPanel.PWIDTH) && (xStep > 0)) //The ball has gone off-screen on the right
+        else if ((xPos >= PongSimulation.PWIDTH) && (xStep > 0)) //The ball has gone off-screen on the right
         {
             //Score for the left paddle
-            pPanel.leftScored();
+            sim.leftScored();
             //Reset the ball
             resetBall();
         }
     }
 
+    /**
+     * Log a WALL_BOUNCE for every time the ball crossed the field, a fast ball can cross it more than once
+     * in an update. Moving down the ball meets the bottom wall first, moving up the top, and the walls
+     * alternate from there.
+     * @param crossings The number of crossings, from floorDiv of the unfolded position by the range.
+     * @param movingDown Determines if the ball was moving down when it started crossing.
+     */
+    private void logWallBounces(int crossings, boolean movingDown)
+    {
+        int wall = movingDown ? 1 : 0;
+        for (int i = Math.abs(crossings); i > 0; i--)
+        {
+            sim.logEvent(TelemetryLog.WALL_BOUNCE, TelemetryLog.NONE, wall);
+            wall = 1 - wall;
+        }
+    }
+
+    /**
+     * Fold a position that has moved past either end of a range back into it, as if it had bounced
+     * off the ends. Every time the range is crossed the direction of travel is reversed.
+     * @param position The position if nothing had been in the way.
+     * @param max The end of the range, which starts at zero.
+     * @return The position within the range.
+     */
+    static long foldIntoField(long position, long max)
+    {
+        long crossings = Math.floorDiv(position, max);
+        long folded = position - crossings * max;
+        //An odd number of bounces leaves the ball travelling back from the far end
+        if ((crossings & 1) != 0)
+        {
+            folded = max - folded;
+        }
+        return folded;
+    }
+
     /**
      * Reset the position of the ball to the middle of the screen. This is typically done at the
-     * start of the game or after a player has scored. The ball's xStep and yStep values are
-     * also inverted to change its direction.
+     * start of the game or after a player has scored. The ball is slowed back to its serving
+     * speed, and its xStep or yStep is inverted to change its direction.
      */
     private void resetBall()
     {
         //Set the ball's initial position to the center of the panel
-        xPos = PongPanel.PWIDTH/2 - bRadius;
-        yPos = PongPanel.PHEIGHT/2 - bRadius;
+        xPos = PongSimulation.PWIDTH/2 - bRadius;
+        yPos = PongSimulation.PHEIGHT/2 - bRadius;
+        //Don't interpolate the jump back to the center
+        prevXPos = xPos;
+        prevYPos = yPos;
+        //Serve at the starting speed, keeping the directions the ball was last moving in
+        xStep = (xStep < 0) ? -serveXStep : serveXStep;
+        yStep = (yStep < 0) ? -serveYStep : serveYStep;
 
-        //Change the ball's directions
-        double sign = Math.random();
+        //Change the ball's directions, using the simulation's seeded random numbers so games can be replayed
         //Invert the xStep
-        if (sign >= 0.5)
+        if (sim.nextRandomBoolean())
         {
             xStep = -xStep;
         }
@@ -149,5 +443,6 @@ public class Ball
         {
             yStep = -yStep;
         }
+        sim.logEvent(TelemetryLog.SERVE, (xStep < 0) ? TelemetryLog.LEFT : TelemetryLog.RIGHT, 0);
     }
 }
@@ -0,0 +1,564 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Date: 10/17/2026
+ */
+public class BallField
+{
+    /** The radius of each ball, they are much smaller than the main ball so thousands fit on the field */
+    private static final int RADIUS = 2;
+    /** The diameter of each ball */
+    private static final int DIAMETER = RADIUS * 2;
+    /** The largest number of pixels a ball moves per update along each axis */
+    private static final int MAX_STEP = 5;
+
+    /** The size of each grid cell, balls can only overlap balls in the same or a neighbouring cell */
+    private static final int CELL_SIZE = DIAMETER;
+    /** The number of columns in the grid */
+    private static final int GRID_COLUMNS = (PongSimulation.PWIDTH + CELL_SIZE - 1)/CELL_SIZE;
+    /** The number of rows in the grid */
+    private static final int GRID_ROWS = (PongSimulation.PHEIGHT + CELL_SIZE - 1)/CELL_SIZE;
+
+    /** The number of balls */
+    private int count;
+
+    /** The x-coordinates of the balls */
+    private int[] xs;
+    /** The y-coordinates of the balls */
+    private int[] ys;
+    /** The x-coordinates of the balls before the last update */
+    private int[] prevXs;
+    /** The y-coordinates of the balls before the last update */
+    private int[] prevYs;
+    /** The number of pixels each ball moves horizontally per update */
+    private int[] xSteps;
+    /** The number of pixels each ball moves vertically per update */
+    private int[] ySteps;
+    /** The steps of each ball after this update's collisions, they only replace the steps once every
+     * collision has been worked out so the order the balls are checked in makes no difference */
+    private int[] nextXSteps;
+    private int[] nextYSteps;
+
+    /** The index into cellBalls where each grid cell's balls start, the last entry is the number of balls */
+    private int[] cellStarts;
+    /** The indices of the balls sorted by grid cell */
+    private int[] cellBalls;
+    /** The grid cell of each ball */
+    private int[] ballCells;
+
+    /** The pool the collisions and moves are split across, or null if the field is updated on the calling thread */
+    private ForkJoinPool pool;
+    /** The number of grid rows below which a band isn't split any further */
+    private int bandRows = GRID_ROWS;
+
+    /** The number of balls that went off-screen on the left and right, as if they had been scored */
+    private long leftMisses;
+    private long rightMisses;
+
+    /** The seed the balls' positions and directions are hashed from */
+    private long seed;
+    /** The number of updates the field has performed */
+    private long tick;
+
+    /** A reference to the leftPaddle */
+    private Paddle leftPaddle;
+    /** A reference to the rightPaddle */
+    private Paddle rightPaddle;
+
+    /**
+     * Create a field of small balls that bounce off the walls, the paddles, and each other. The balls are stored
+     * as a structure of arrays rather than one object each, so updating tens of thousands of them walks a few
+     * primitive arrays in order. Ball-vs-ball checks go through a uniform grid with cells the size of a ball,
+     * which is rebuilt with a counting sort every update, so each ball is only checked against the handful of
+     * balls in its own and the eight neighbouring cells. Balls that leave the field on the left or right are
+     * counted and respawned in the middle. The field doesn't affect the main ball or the score.
+     * @param count The number of balls.
+     * @param seed The seed the balls' positions and directions are hashed from, so the field plays out the
+     *             same every time for the same seed and paddle moves.
+     * @param leftPaddle The left paddle in the simulation.
+     * @param rightPaddle The right paddle in the simulation.
+     */
+    public BallField(int count, long seed, Paddle leftPaddle, Paddle rightPaddle)
+    {
+        this.count = count;
+        this.seed = seed;
+        this.leftPaddle = leftPaddle;
+        this.rightPaddle = rightPaddle;
+
+        //Create the buffers once, updates only ever reuse them
+        xs = new int[count];
+        ys = new int[count];
+        prevXs = new int[count];
+        prevYs = new int[count];
+        xSteps = new int[count];
+        ySteps = new int[count];
+        nextXSteps = new int[count];
+        nextYSteps = new int[count];
+        cellStarts = new int[GRID_COLUMNS * GRID_ROWS + 1];
+        cellBalls = new int[count];
+        ballCells = new int[count];
+        scatter();
+    }
+
+    /**
+     * Start the field again with a new seed, as a new field created with it would, reusing the buffers.
+     * @param seed The seed the balls' positions and directions are hashed from.
+     */
+    public void reset(long seed)
+    {
+        this.seed = seed;
+        tick = 0L;
+        leftMisses = 0L;
+        rightMisses = 0L;
+        scatter();
+    }
+
+    /**
+     * Scatter the balls over the field between the paddles, with positions and steps hashed from the seed.
+     */
+    private void scatter()
+    {
+        //Scatter the balls over the field between the paddles
+        int minX = leftPaddle.getXPos() + leftPaddle.getWidth();
+        int rangeX = rightPaddle.getXPos() - DIAMETER - minX;
+        for (int i = 0; i < count; i++)
+        {
+            long hash = hash(i, -1L);
+            xs[i] = minX + (int) Math.floorMod(hash, (long) rangeX);
+            ys[i] = (int) Math.floorMod(hash >>> 20, (long) (PongSimulation.PHEIGHT - DIAMETER));
+            prevXs[i] = xs[i];
+            prevYs[i] = ys[i];
+            setRandomSteps(i, hash >>> 40);
+        }
+    }
+
+    /**
+     * Advance every ball by one update. The collisions are found from the positions and steps at the start
+     * of the update, then every ball is moved with its new steps and bounced off the walls and paddles.
+     */
+    public void update()
+    {
+        buildGrid();
+        if (pool == null)
+        {
+            collide(0, GRID_ROWS);
+            addMisses(move(0, GRID_ROWS));
+        }
+        else
+        {
+            //Every collision must be worked out before any ball moves, so the two phases are joined in between
+            pool.invoke(new BandTask(0, GRID_ROWS, false));
+            addMisses(pool.invoke(new BandTask(0, GRID_ROWS, true)));
+        }
+        tick++;
+    }
+
+    /**
+     * Set the number of threads the field is updated with. The grid is split into bands of rows that are worked
+     * out with fork-join tasks, and since every band gives exactly the same result whichever thread runs it and
+     * the misses are added up once the bands are joined, the field plays out identically with any number of threads.
+     * @param threads The number of threads, 1 updates the field on the calling thread.
+     */
+    public void setThreads(int threads)
+    {
+        if (pool != null)
+        {
+            pool.shutdown();
+            pool = null;
+        }
+        if (threads > 1)
+        {
+            pool = new ForkJoinPool(threads);
+            //A few bands per thread lets work stealing even out the bands with more balls in them
+            bandRows = Math.max(1, GRID_ROWS/(threads * 4));
+        }
+    }
+
+    /**
+     * Sort the balls into the grid cells by counting the balls in each cell, working out where each
+     * cell's balls start, and then placing the balls. This is linear in the number of balls and cells.
+     */
+    private void buildGrid()
+    {
+        Arrays.fill(cellStarts, 0);
+        for (int i = 0; i < count; i++)
+        {
+            int cell = getCell(xs[i], ys[i]);
+            ballCells[i] = cell;
+            cellStarts[cell + 1]++;
+        }
+        for (int cell = 0; cell < GRID_COLUMNS * GRID_ROWS; cell++)
+        {
+            cellStarts[cell + 1] = cellStarts[cell + 1] + cellStarts[cell];
+        }
+
+        //Place the balls in index order, using the next free slot of each cell, then restore the starts
+        for (int i = 0; i < count; i++)
+        {
+            cellBalls[cellStarts[ballCells[i]]++] = i;
+        }
+        for (int cell = GRID_COLUMNS * GRID_ROWS; cell > 0; cell--)
+        {
+            cellStarts[cell] = cellStarts[cell - 1];
+        }
+        cellStarts[0] = 0;
+    }
+
+    /**
+     * Work out the new steps of the balls in a band of grid rows. Each ball only reads the state at the start
+     * of the update and only writes its own new steps, so bands can be worked out in any order or at the same time.
+     * When two overlapping balls are moving towards each other they swap their steps along the axis they are
+     * furthest apart on, which is how two equal balls bounce in a head-on collision along that axis.
+     * @param firstRow The first row of the band.
+     * @param endRow The row after the last row of the band.
+     */
+    private void collide(int firstRow, int endRow)
+    {
+        for (int row = firstRow; row < endRow; row++)
+        {
+            for (int column = 0; column < GRID_COLUMNS; column++)
+            {
+                int cell = row * GRID_COLUMNS + column;
+                for (int slot = cellStarts[cell]; slot < cellStarts[cell + 1]; slot++)
+                {
+                    collideBall(cellBalls[slot], row, column);
+                }
+            }
+        }
+    }
+
+    /**
+     * Work out the new steps of one ball from the first ball it is colliding with in the neighbouring cells.
+     * @param i The index of the ball.
+     * @param row The grid row of the ball.
+     * @param column The grid column of the ball.
+     */
+    private void collideBall(int i, int row, int column)
+    {
+        int x = xs[i];
+        int y = ys[i];
+        int xStep = xSteps[i];
+        int yStep = ySteps[i];
+        nextXSteps[i] = xStep;
+        nextYSteps[i] = yStep;
+
+        int lastRow = Math.min(row + 1, GRID_ROWS - 1);
+        int lastColumn = Math.min(column + 1, GRID_COLUMNS - 1);
+        for (int r = Math.max(row - 1, 0); r <= lastRow; r++)
+        {
+            for (int c = Math.max(column - 1, 0); c <= lastColumn; c++)
+            {
+                int cell = r * GRID_COLUMNS + c;
+                for (int slot = cellStarts[cell]; slot < cellStarts[cell + 1]; slot++)
+                {
+                    int j = cellBalls[slot];
+                    int dx = xs[j] - x;
+                    int dy = ys[j] - y;
+
+                    //Skip the ball itself and any ball that isn't touching it
+                    if ((j == i) || (dx * dx + dy * dy >= DIAMETER * DIAMETER))
+                    {
+                        continue;
+                    }
+
+                    //Only bounce if the balls are moving towards each other, otherwise they are already separating
+                    int relativeX = xSteps[j] - xStep;
+                    int relativeY = ySteps[j] - yStep;
+                    if (dx * relativeX + dy * relativeY < 0)
+                    {
+                        if (Math.abs(dx) >= Math.abs(dy))
+                        {
+                            nextXSteps[i] = xSteps[j];
+                        }
+                        else
+                        {
+                            nextYSteps[i] = ySteps[j];
+                        }
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Move the balls in a band of grid rows with their new steps, bouncing them off the walls and paddles and
+     * respawning any that have left the field. Each ball only touches its own state, so bands can be moved at
+     * the same time.
+     * @param firstRow The first row of the band.
+     * @param endRow The row after the last row of the band.
+     * @return The number of balls that left the field on the left side, in the high 32 bits, and on the right
+     *         side, in the low 32 bits.
+     */
+    private long move(int firstRow, int endRow)
+    {
+        int maxY = PongSimulation.PHEIGHT - DIAMETER;
+        int leftFace = leftPaddle.getXPos() + leftPaddle.getWidth();
+        int rightFace = rightPaddle.getXPos() - DIAMETER;
+        int left = 0;
+        int right = 0;
+
+        int endSlot = cellStarts[endRow * GRID_COLUMNS];
+        for (int slot = cellStarts[firstRow * GRID_COLUMNS]; slot < endSlot; slot++)
+        {
+            int i = cellBalls[slot];
+            int xStep = nextXSteps[i];
+            int yStep = nextYSteps[i];
+            int x = xs[i];
+            prevXs[i] = x;
+            prevYs[i] = ys[i];
+
+            //Bounce off the top and bottom of the field
+            int unfoldedY = ys[i] + yStep;
+            int y = (int) Ball.foldIntoField(unfoldedY, maxY);
+            if ((Math.floorDiv(unfoldedY, maxY) & 1) != 0)
+            {
+                yStep = -yStep;
+            }
+
+            //Bounce off the face of a paddle if the ball crossed it this update while level with the paddle
+            int newX = x + xStep;
+            if ((xStep < 0) && (x >= leftFace) && (newX < leftFace) && overlaps(leftPaddle, y))
+            {
+                newX = 2 * leftFace - newX;
+                xStep = -xStep;
+            }
+            else if ((xStep > 0) && (x <= rightFace) && (newX > rightFace) && overlaps(rightPaddle, y))
+            {
+                newX = 2 * rightFace - newX;
+                xStep = -xStep;
+            }
+            xs[i] = newX;
+            ys[i] = y;
+            xSteps[i] = xStep;
+            ySteps[i] = yStep;
+
+            //Respawn any ball that has gone off-screen
+            if ((newX + DIAMETER <= 0) || (newX >= PongSimulation.PWIDTH))
+            {
+                if (newX < 0)
+                {
+                    left++;
+                }
+                else
+                {
+                    right++;
+                }
+                respawn(i);
+            }
+        }
+        return ((long) left << 32) | right;
+    }
+
+    /**
+     * A task that works out the collisions or moves for a band of grid rows, splitting it in half until
+     * the bands are small enough.
+     */
+    private class BandTask extends RecursiveTask<Long>
+    {
+        /** The version of the class, tasks are never serialized but ForkJoinTask is Serializable */
+        private static final long serialVersionUID = 1L;
+
+        /** The first row of the band */
+        private int firstRow;
+        /** The row after the last row of the band */
+        private int endRow;
+        /** Determines if the task moves the balls rather than colliding them */
+        private boolean moving;
+
+        /**
+         * Create a task for a band of grid rows.
+         * @param firstRow The first row of the band.
+         * @param endRow The row after the last row of the band.
+         * @param moving Determines if the task moves the balls rather than colliding them.
+         */
+        private BandTask(int firstRow, int endRow, boolean moving)
+        {
+            this.firstRow = firstRow;
+            this.endRow = endRow;
+            this.moving = moving;
+        }
+
+        /**
+         * Work out the band, or split it in half and work out both halves.
+         * @return The misses of the band if moving, added up across the halves, otherwise 0.
+         */
+        protected Long compute()
+        {
+            if (endRow - firstRow <= bandRows)
+            {
+                if (moving)
+                {
+                    return move(firstRow, endRow);
+                }
+                collide(firstRow, endRow);
+                return 0L;
+            }
+
+            int middleRow = (firstRow + endRow) >>> 1;
+            BandTask top = new BandTask(firstRow, middleRow, moving);
+            top.fork();
+            long bottomMisses = new BandTask(middleRow, endRow, moving).compute();
+            //Adding the packed counts adds the left and right misses separately, in any order
+            return top.join() + bottomMisses;
+        }
+    }
+
+    /**
+     * Count the balls that left the field, this is called once per update after all of the balls have moved.
+     * @param misses The misses returned by move().
+     */
+    private void addMisses(long misses)
+    {
+        leftMisses = leftMisses + (misses >>> 32);
+        rightMisses = rightMisses + (misses & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Determines whether a ball at the given height is level with a paddle.
+     * @param paddle The paddle.
+     * @param y The y-coordinate of the ball.
+     * @return True if the ball and paddle overlap vertically.
+     */
+    private static boolean overlaps(Paddle paddle, int y)
+    {
+        return (y < paddle.getYPos() + paddle.getHeight()) && (paddle.getYPos() < y + DIAMETER);
+    }
+
+    /**
+     * Place a ball back in the middle of the field with a new direction. The direction is hashed from the ball
+     * and the tick rather than drawn from a shared generator, so it doesn't depend on the order balls respawn in.
+     * @param i The index of the ball.
+     */
+    private void respawn(int i)
+    {
+        xs[i] = PongSimulation.PWIDTH/2 - RADIUS;
+        ys[i] = PongSimulation.PHEIGHT/2 - RADIUS;
+        prevXs[i] = xs[i];
+        prevYs[i] = ys[i];
+        setRandomSteps(i, hash(i, tick));
+    }
+
+    /**
+     * Give a ball random steps, moving at least one pixel horizontally so it can't get stuck between the walls.
+     * @param i The index of the ball.
+     * @param bits The random bits to pick the steps from.
+     */
+    private void setRandomSteps(int i, long bits)
+    {
+        int xStep = 1 + (int) ((bits & 0xFFL) % MAX_STEP);
+        xSteps[i] = ((bits & 0x100L) != 0) ? xStep : -xStep;
+        ySteps[i] = (int) (((bits >>> 9) & 0xFFL) % (2 * MAX_STEP + 1)) - MAX_STEP;
+    }
+
+    /**
+     * Hash a ball and a tick with the field's seed, using the SplitMix64 finalizer.
+     * @param i The index of the ball.
+     * @param tick The tick.
+     * @return 64 random bits.
+     */
+    private long hash(int i, long tick)
+    {
+        long z = seed + (i + 1) * 0x9E3779B97F4A7C15L + tick * 0xD1B54A32D192ED03L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Get the grid cell a ball is in, balls partly off the field are put in the nearest cell.
+     * @param x The x-coordinate of the ball.
+     * @param y The y-coordinate of the ball.
+     * @return The index of the cell.
+     */
+    private static int getCell(int x, int y)
+    {
+        int column = Math.max(0, Math.min(GRID_COLUMNS - 1, x/CELL_SIZE));
+        int row = Math.max(0, Math.min(GRID_ROWS - 1, y/CELL_SIZE));
+        return row * GRID_COLUMNS + column;
+    }
+
+    /**
+     * Make the balls' previous positions their current positions, so they are drawn
+     * standing still while they aren't being updated.
+     */
+    public void settle()
+    {
+        System.arraycopy(xs, 0, prevXs, 0, count);
+        System.arraycopy(ys, 0, prevYs, 0, count);
+    }
+
+    /**
+     * Get the x-coordinate a ball is drawn at, interpolated between its previous and current position.
+     * @param i The index of the ball.
+     * @param interpolation How far the time is between the last update and the next (0.0 to 1.0).
+     * @return The x-coordinate to draw the ball at.
+     */
+    public int getDrawX(int i, double interpolation)
+    {
+        return (int) Math.round(prevXs[i] + (xs[i] - prevXs[i]) * interpolation);
+    }
+
+    /**
+     * Get the y-coordinate a ball is drawn at, interpolated between its previous and current position.
+     * @param i The index of the ball.
+     * @param interpolation How far the time is between the last update and the next (0.0 to 1.0).
+     * @return The y-coordinate to draw the ball at.
+     */
+    public int getDrawY(int i, double interpolation)
+    {
+        return (int) Math.round(prevYs[i] + (ys[i] - prevYs[i]) * interpolation);
+    }
+
+    /**
+     * Get the diameter of the balls.
+     * @return The diameter of every ball in the field.
+     */
+    public int getDiameter()
+    {
+        return DIAMETER;
+    }
+
+    /**
+     * Add up the positions and steps of every ball, this is used to check that two fields are in the same state.
+     * @return A checksum of the field.
+     */
+    public long checksum()
+    {
+        long sum = 0L;
+        for (int i = 0; i < count; i++)
+        {
+            sum = sum * 31 + (((long) xs[i] << 48) ^ ((long) ys[i] << 32) ^ ((long) xSteps[i] << 16) ^ ySteps[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Get the number of balls.
+     * @return The number of balls.
+     */
+    public int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Get the number of balls that have gone off-screen on the left.
+     * @return The left misses.
+     */
+    public long getLeftMisses()
+    {
+        return leftMisses;
+    }
+
+    /**
+     * Get the number of balls that have gone off-screen on the right.
+     * @return The right misses.
+     */
+    public long getRightMisses()
+    {
+        return rightMisses;
+    }
+}
@@ -0,0 +1,113 @@
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+
+/**
+ * Date: 10/17/2026
+ */
+public class BufferStrategyBackend implements RenderBackend
+{
+    /** The number of buffers to flip between */
+    private static final int NUM_BUFFERS = 2;
+
+    /** The heavyweight canvas that owns the buffer strategy */
+    private Canvas canvas;
+    /** The buffer strategy used to page flip between frames */
+    private BufferStrategy strategy;
+    /** The graphics for the frame currently being drawn */
+    private Graphics sGraphics;
+
+    /**
+     * A backend that draws each frame into the back buffer of a Canvas BufferStrategy and then
+     * flips it onto the screen, using page flipping when the display supports it. The canvas must
+     * be added to the PongPanel, frames can't be drawn until it has been displayed.
+     */
+    public BufferStrategyBackend()
+    {
+        canvas = new Canvas();
+        canvas.setPreferredSize(new Dimension(PongPanel.PWIDTH, PongPanel.PHEIGHT));
+        canvas.setBackground(Color.BLACK);
+        //The game loop draws the canvas actively, so ignore the paint events from the OS
+        canvas.setIgnoreRepaint(true);
+    }
+
+    /**
+     * Get the canvas the frames are drawn onto.
+     * @return The canvas.
+     */
+    public Canvas getCanvas()
+    {
+        return canvas;
+    }
+
+    /**
+     * Get the graphics for the strategy's back buffer, creating the strategy the first time
+     * the canvas is displayable.
+     * @return The graphics to draw the frame with, or null if the canvas isn't displayed yet.
+     */
+    public Graphics beginFrame()
+    {
+        if (strategy == null)
+        {
+            if (!canvas.isDisplayable())
+            {
+                return null;
+            }
+            canvas.createBufferStrategy(NUM_BUFFERS);
+            strategy = canvas.getBufferStrategy();
+        }
+
+        sGraphics = strategy.getDrawGraphics();
+        return sGraphics;
+    }
+
+    /**
+     * Flip the back buffer onto the screen, unless its contents were lost while the frame
+     * was being drawn. A lost frame is simply skipped, the next frame redraws everything.
+     */
+    public void showFrame()
+    {
+        if (sGraphics == null)
+        {
+            return;
+        }
+        sGraphics.dispose();
+        sGraphics = null;
+
+        if (!strategy.contentsLost())
+        {
+            strategy.show();
+        }
+        Toolkit.getDefaultToolkit().sync(); //Sync the display (only applies to odd systems)
+    }
+
+    /**
+     * Determine whether the back buffer holds the previous frame. It never does, when page flipping
+     * the back buffer holds an older frame (or nothing), so every frame is drawn in full.
+     * @return False.
+     */
+    public boolean hasPreviousFrame()
+    {
+        return false;
+    }
+
+    /**
+     * Release the buffer strategy's buffers.
+     */
+    public void dispose()
+    {
+        if (strategy != null)
+        {
+            strategy.dispose();
+            strategy = null;
+        }
+    }
+
+    /**
+     * Get the name used to select this backend.
+     * @return "bufferstrategy"
+     */
+    public String getName()
+    {
+        return "bufferstrategy";
+    }
+}
@@ -0,0 +1,173 @@
+/**
+ * Date: 10/17/2026
+ */
+public class DirtyRegion
+{
+    /** The max number of rectangles tracked before new ones are merged into the last one */
+    private static final int MAX_RECTS = 16;
+
+    /** The x-coordinates of the dirty rectangles */
+    private int[] xs = new int[MAX_RECTS];
+    /** The y-coordinates of the dirty rectangles */
+    private int[] ys = new int[MAX_RECTS];
+    /** The widths of the dirty rectangles */
+    private int[] widths = new int[MAX_RECTS];
+    /** The heights of the dirty rectangles */
+    private int[] heights = new int[MAX_RECTS];
+    /** The number of dirty rectangles */
+    private int count;
+
+    /** The width of the area the rectangles are clipped to */
+    private int areaWidth;
+    /** The height of the area the rectangles are clipped to */
+    private int areaHeight;
+
+    /**
+     * A DirtyRegion collects the rectangles of a frame that have changed since the previous frame,
+     * so only those parts need to be redrawn. The rectangles are stored in primitive arrays that
+     * are reused every frame, so tracking them allocates nothing.
+     * @param areaWidth The width of the area being drawn, rectangles are clipped to it.
+     * @param areaHeight The height of the area being drawn, rectangles are clipped to it.
+     */
+    public DirtyRegion(int areaWidth, int areaHeight)
+    {
+        this.areaWidth = areaWidth;
+        this.areaHeight = areaHeight;
+    }
+
+    /**
+     * Remove all of the dirty rectangles, this is done at the start of each frame.
+     */
+    public void clear()
+    {
+        count = 0;
+    }
+
+    /**
+     * Mark the whole area as dirty.
+     */
+    public void addAll()
+    {
+        count = 0;
+        add(0, 0, areaWidth, areaHeight);
+    }
+
+    /**
+     * Mark the area covered by a box that has moved as dirty. The box's old and new
+     * bounds are covered by a single rectangle, since they usually overlap.
+     * @param oldX The old x-coordinate of the box.
+     * @param oldY The old y-coordinate of the box.
+     * @param newX The new x-coordinate of the box.
+     * @param newY The new y-coordinate of the box.
+     * @param width The width of the box.
+     * @param height The height of the box.
+     */
+    public void addMoved(int oldX, int oldY, int newX, int newY, int width, int height)
+    {
+        int minX = Math.min(oldX, newX);
+        int minY = Math.min(oldY, newY);
+        add(minX, minY, Math.max(oldX, newX) + width - minX, Math.max(oldY, newY) + height - minY);
+    }
+
+    /**
+     * Mark a rectangle as dirty. The rectangle is clipped to the area, and if the max number of
+     * rectangles has been reached it is merged into the last rectangle instead.
+     * @param x The x-coordinate of the rectangle.
+     * @param y The y-coordinate of the rectangle.
+     * @param width The width of the rectangle.
+     * @param height The height of the rectangle.
+     */
+    public void add(int x, int y, int width, int height)
+    {
+        //Clip the rectangle to the area
+        int x2 = Math.min(x + width, areaWidth);
+        int y2 = Math.min(y + height, areaHeight);
+        x = Math.max(x, 0);
+        y = Math.max(y, 0);
+        if ((x2 <= x) || (y2 <= y))
+        {
+            return;
+        }
+
+        if (count == MAX_RECTS)
+        {
+            //Out of room, so grow the last rectangle to cover this one too
+            int last = count - 1;
+            x2 = Math.max(x2, xs[last] + widths[last]);
+            y2 = Math.max(y2, ys[last] + heights[last]);
+            x = Math.min(x, xs[last]);
+            y = Math.min(y, ys[last]);
+            count--;
+        }
+
+        xs[count] = x;
+        ys[count] = y;
+        widths[count] = x2 - x;
+        heights[count] = y2 - y;
+        count++;
+    }
+
+    /**
+     * Get the number of dirty rectangles.
+     * @return The number of rectangles.
+     */
+    public int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Get the x-coordinate of a dirty rectangle.
+     * @param i The index of the rectangle.
+     * @return The x-coordinate.
+     */
+    public int getX(int i)
+    {
+        return xs[i];
+    }
+
+    /**
+     * Get the y-coordinate of a dirty rectangle.
+     * @param i The index of the rectangle.
+     * @return The y-coordinate.
+     */
+    public int getY(int i)
+    {
+        return ys[i];
+    }
+
+    /**
+     * Get the width of a dirty rectangle.
+     * @param i The index of the rectangle.
+     * @return The width.
+     */
+    public int getWidth(int i)
+    {
+        return widths[i];
+    }
+
+    /**
+     * Get the height of a dirty rectangle.
+     * @param i The index of the rectangle.
+     * @return The height.
+     */
+    public int getHeight(int i)
+    {
+        return heights[i];
+    }
+
+    /**
+     * Get the number of pixels covered by the dirty rectangles. Pixels covered by more than one
+     * rectangle are counted once per rectangle, since they are redrawn once per rectangle.
+     * @return The number of pixels that will be redrawn.
+     */
+    public long getPixelCount()
+    {
+        long pixels = 0L;
+        for (int i = 0; i < count; i++)
+        {
+            pixels = pixels + (long) widths[i] * heights[i];
+        }
+        return pixels;
+    }
+}
@@ -0,0 +1,300 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Date: 10/17/2026
+ */
+public class FrameExporter implements RenderBackend
+{
+    /** The number of frames in the pool, the renderer can get this many frames ahead of the writer */
+    private static final int POOL_SIZE = 8;
+    /** The frame rate frames are exported at when none is given */
+    private static final int DEFAULT_FPS = 60;
+
+    /** The panel whose drawing code renders the frames */
+    private PongPanel panel;
+    /** The frames that are free to render into, and the rendered frames waiting to be written */
+    private BlockingQueue<Frame> freeFrames = new ArrayBlockingQueue<Frame>(POOL_SIZE);
+    private BlockingQueue<Frame> renderedFrames = new ArrayBlockingQueue<Frame>(POOL_SIZE);
+    /** The frame being rendered into */
+    private Frame frame;
+
+    /** The channel the frames are written to */
+    private FileChannel out;
+    /** The exception that stopped the writer, or null */
+    private volatile IOException writeError;
+    /** The time the writer spent blocked writing (in nanos) */
+    private volatile long writeTime;
+
+    /**
+     * A FrameExporter renders a replay offscreen with the PongPanel's own drawing code and streams the frames
+     * as raw 24-bit BGR video, ready to be piped into an encoder. The frames are rendered into a small pool of
+     * reused images and handed to a writer thread, which writes each image's pixel array to the channel as it
+     * is, so rendering never waits on I/O unless the whole pool is waiting to be written.
+     * @param out The channel to write the frames to.
+     */
+    public FrameExporter(FileChannel out)
+    {
+        this.out = out;
+        panel = new PongPanel(DEFAULT_FPS);
+        panel.setBackend(this);
+        for (int i = 0; i < POOL_SIZE; i++)
+        {
+            freeFrames.add(new Frame());
+        }
+    }
+
+    /**
+     * Render every frame of a replay and write them, reporting the frames per second when done.
+     * @param replay The replay.
+     * @param fps The frame rate to export at, frames between updates are interpolated as they are in the game.
+     * @return The number of frames written.
+     * @throws IOException If the frames can't be written.
+     * @throws InterruptedException If interrupted while waiting for the writer.
+     */
+    public long export(Replay replay, int fps) throws IOException, InterruptedException
+    {
+        Thread writer = new Thread(this::writeFrames, "FrameExporter-writer");
+        writer.start();
+
+        PongSimulation sim = new PongSimulation(replay.getSeed());
+        panel.setSimulation(sim);
+        int ticksApplied = 0;
+        long frames = 0L;
+        long startTime = System.nanoTime();
+        try
+        {
+            while (writeError == null)
+            {
+                //Each frame falls between two updates, update the simulation up to the later one
+                long frameTicks = frames * PongSimulation.UPS;
+                int tick = (int) (frameTicks/fps);
+                if (tick >= replay.getTickCount())
+                {
+                    break;
+                }
+                while (ticksApplied <= tick)
+                {
+                    replay.apply(sim, ticksApplied);
+                    ticksApplied++;
+                }
+
+                frame = freeFrames.take();
+                double interpolation = (double) (frameTicks % fps)/fps;
+                panel.renderFrame(interpolation, frames * 1000000000L/fps);
+                renderedFrames.put(frame);
+                frames++;
+            }
+        }
+        finally
+        {
+            //An empty frame tells the writer there are no more
+            renderedFrames.put(new Frame(null));
+            writer.join();
+        }
+        if (writeError != null)
+        {
+            throw writeError;
+        }
+
+        double seconds = (System.nanoTime() - startTime)/1000000000.0;
+        double videoSeconds = (double) frames/fps;
+        System.err.println(String.format("Exported %d frames (%.1f s of video at %d FPS) in %.2f s, %.0f FPS, %.1fx real time, "
+                + "%.0f MB/s, writer blocked %.2f s", frames, videoSeconds, fps, seconds, frames/seconds, videoSeconds/seconds,
+                frames * (double) Frame.SIZE/seconds/1000000.0, writeTime/1000000000.0));
+        return frames;
+    }
+
+    /**
+     * Write the rendered frames in order until the empty frame arrives, returning each to the pool once written.
+     * After a write fails the frames are only returned, so the renderer never waits on the writer, and it stops.
+     */
+    private void writeFrames()
+    {
+        try
+        {
+            while (true)
+            {
+                Frame written = renderedFrames.take();
+                if (written.image == null)
+                {
+                    return;
+                }
+                if (writeError == null)
+                {
+                    writeFrame(written);
+                }
+                freeFrames.put(written);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Write the bytes of a frame's image straight to the channel.
+     * @param written The frame.
+     */
+    private void writeFrame(Frame written)
+    {
+        long startTime = System.nanoTime();
+        try
+        {
+            written.buffer.clear();
+            while (written.buffer.hasRemaining())
+            {
+                out.write(written.buffer);
+            }
+        }
+        catch (IOException e)
+        {
+            writeError = e;
+        }
+        writeTime = writeTime + (System.nanoTime() - startTime);
+    }
+
+    /**
+     * Get the graphics of the frame being rendered.
+     * @return The graphics to draw the frame with.
+     */
+    public Graphics beginFrame()
+    {
+        return frame.graphics;
+    }
+
+    /**
+     * The frame is already in its image, the writer takes it from there.
+     */
+    public void showFrame()
+    {
+        //Nothing to show
+    }
+
+    /**
+     * The pooled images hold frames from several frames ago, so every frame is drawn in full.
+     * @return False.
+     */
+    public boolean hasPreviousFrame()
+    {
+        return false;
+    }
+
+    /**
+     * Release the graphics of the pooled frames.
+     */
+    public void dispose()
+    {
+        for (Frame free : freeFrames)
+        {
+            free.graphics.dispose();
+        }
+    }
+
+    /**
+     * Get the name used to select this backend.
+     * @return "export"
+     */
+    public String getName()
+    {
+        return "export";
+    }
+
+    /**
+     * A frame in the pool: an image whose pixels are stored as bytes in the order they are written,
+     * and a buffer wrapping those same bytes, so a frame goes to the channel without being copied.
+     */
+    private static class Frame
+    {
+        /** The number of bytes in a frame */
+        private static final int SIZE = PongSimulation.PWIDTH * PongSimulation.PHEIGHT * 3;
+
+        /** The image the frame is rendered into */
+        private BufferedImage image;
+        /** The graphics used to draw into the image */
+        private Graphics2D graphics;
+        /** The image's pixel bytes */
+        private ByteBuffer buffer;
+
+        /**
+         * Create a frame with a new image.
+         */
+        private Frame()
+        {
+            this(new BufferedImage(PongSimulation.PWIDTH, PongSimulation.PHEIGHT, BufferedImage.TYPE_3BYTE_BGR));
+        }
+
+        /**
+         * Create a frame for an image.
+         * @param image The image, or null for the empty frame that ends the stream.
+         */
+        private Frame(BufferedImage image)
+        {
+            this.image = image;
+            if (image != null)
+            {
+                graphics = image.createGraphics();
+                buffer = ByteBuffer.wrap(((DataBufferByte) image.getRaster().getDataBuffer()).getData());
+            }
+        }
+    }
+
+    /**
+     * Export a replay as raw video. The output is headerless bgr24 frames of PWIDTH x PHEIGHT, e.g. for
+     * ffmpeg -f rawvideo -pix_fmt bgr24 -s 700x400 -r 60 -i frames.raw match.mp4
+     * @param args The replay file, the output file or - for stdout, and an optional frame rate (60 by default).
+     */
+    public static void main(String[] args)
+    {
+        try
+        {
+            args = PongConfig.init(args);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
+        //Render into images only, this must be set before AWT starts
+        System.setProperty("java.awt.headless", "true");
+        if (args.length < 2)
+        {
+            System.err.println("Usage: java FrameExporter <replay file> <output file | -> [fps]");
+            return;
+        }
+
+        try
+        {
+            Replay replay = Replay.load(args[0]);
+            int fps = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_FPS;
+            System.err.println("Exporting " + args[0] + " as bgr24 " + PongSimulation.PWIDTH + "x" + PongSimulation.PHEIGHT + " at " + fps + " FPS");
+
+            FileOutputStream stream = args[1].equals("-") ? new FileOutputStream(FileDescriptor.out) : new FileOutputStream(args[1]);
+            try (FileChannel out = stream.getChannel())
+            {
+                new FrameExporter(out).export(replay, fps);
+            }
+        }
+        catch (NumberFormatException e)
+        {
+            System.err.println("Usage: java FrameExporter <replay file> <output file | -> [fps]");
+        }
+        catch (IOException e)
+        {
+            System.err.println("Unable to export the replay: " + e.getMessage());
+        }
+        catch (InterruptedException e)
+        {
+            System.err.println("Interrupted before the export finished");
+        }
+    }
+}
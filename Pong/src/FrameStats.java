@@ -0,0 +1,378 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Date: 10/17/2026
+ */
+public class FrameStats implements FrameStatsMXBean
+{
+    /** The number of nanoseconds in one second */
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    /** The times taken by each game update, render, and paint (in nanos) */
+    private LatencyHistogram updateTimes = new LatencyHistogram();
+    private LatencyHistogram renderTimes = new LatencyHistogram();
+    private LatencyHistogram paintTimes = new LatencyHistogram();
+    /** The times the animator overslept by (in nanos) */
+    private LatencyHistogram overSleepTimes = new LatencyHistogram();
+
+    /** The totals since the stats were started or reset */
+    private volatile long updateCount;
+    private volatile long frameCount;
+    private volatile long skippedFrames;
+    private volatile long droppedFrames;
+    private volatile long yieldCount;
+    /** The number of pixels redrawn in the last frame, and in all frames */
+    private volatile long pixelsRedrawn;
+    private volatile long totalPixelsRedrawn;
+
+    /** The time the current one second window started (in nanos) */
+    private long windowStartTime;
+    /** The number of updates and frames in the current window */
+    private long windowUpdates;
+    private long windowFrames;
+    /** The UPS and FPS measured over the last full window */
+    private volatile double updatesPerSecond;
+    private volatile double framesPerSecond;
+    /** The number of windows completed, this changes once a second */
+    private volatile long windowCount;
+
+    /** The thread bean used to measure the CPU time of the animator thread, or null if it is unsupported */
+    private ThreadMXBean threadBean;
+    /** The CPU time the animator thread had used when the current window started (in nanos) */
+    private long windowStartCpuTime;
+    /** The fraction of one core the animator thread used over the last full window */
+    private volatile double animatorCpuLoad;
+    /** The name of the strategy the animator waits for each frame with */
+    private volatile String waitStrategy = WaitStrategy.SLEEP.name();
+
+    /** Determines if a reset was requested, the animator thread carries it out */
+    private volatile boolean resetRequested;
+
+    /**
+     * FrameStats collects the timing of the game loop: histograms of the update, render, and paint times
+     * and of the time the animator oversleeps, the actual UPS and FPS, and the counts of skipped frames,
+     * dropped frames, and yields. The animator thread records into it without allocating, and it is
+     * exposed through JMX so it can be watched without attaching a profiler.
+     */
+    public FrameStats()
+    {
+        windowStartTime = System.nanoTime();
+
+        //The CPU time shows what the wait strategy costs, a spinning animator uses a whole core
+        threadBean = ManagementFactory.getThreadMXBean();
+        if (!threadBean.isCurrentThreadCpuTimeSupported())
+        {
+            threadBean = null;
+        }
+        animatorCpuLoad = -1.0;
+    }
+
+    /**
+     * Record the time taken by a game update.
+     * @param nanos The time taken (in nanos).
+     */
+    public void recordUpdate(long nanos)
+    {
+        updateTimes.record(nanos);
+        updateCount++;
+        windowUpdates++;
+    }
+
+    /**
+     * Record the time taken to render a frame.
+     * @param nanos The time taken (in nanos).
+     */
+    public void recordRender(long nanos)
+    {
+        renderTimes.record(nanos);
+    }
+
+    /**
+     * Record the time taken to paint a frame onto the screen.
+     * @param nanos The time taken (in nanos).
+     */
+    public void recordPaint(long nanos)
+    {
+        paintTimes.record(nanos);
+    }
+
+    /**
+     * Record the time the animator overslept by.
+     * @param nanos The time overslept (in nanos).
+     */
+    public void recordOverSleep(long nanos)
+    {
+        overSleepTimes.record(nanos);
+    }
+
+    /**
+     * Count updates that were run without rendering to catch up with the UPS.
+     * @param frames The number of frames skipped.
+     */
+    public void addSkippedFrames(int frames)
+    {
+        skippedFrames = skippedFrames + frames;
+    }
+
+    /**
+     * Count frames that were dropped because the loop fell more than a frame behind.
+     * @param frames The number of frames dropped.
+     */
+    public void addDroppedFrames(long frames)
+    {
+        droppedFrames = droppedFrames + frames;
+    }
+
+    /**
+     * Record the number of pixels redrawn in a frame.
+     * @param pixels The number of pixels within the areas redrawn.
+     */
+    public void recordPixelsRedrawn(long pixels)
+    {
+        pixelsRedrawn = pixels;
+        totalPixelsRedrawn = totalPixelsRedrawn + pixels;
+    }
+
+    /**
+     * Count a yield of the animator thread.
+     */
+    public void recordYield()
+    {
+        yieldCount++;
+    }
+
+    /**
+     * Count a rendered frame, and work out the UPS and FPS once a second.
+     * @param now The current time (in nanos).
+     */
+    public void frameDone(long now)
+    {
+        frameCount++;
+        windowFrames++;
+
+        long windowTime = now - windowStartTime;
+        if (windowTime >= NANOS_PER_SECOND)
+        {
+            updatesPerSecond = (windowUpdates * (double) NANOS_PER_SECOND)/windowTime;
+            framesPerSecond = (windowFrames * (double) NANOS_PER_SECOND)/windowTime;
+            windowUpdates = 0L;
+            windowFrames = 0L;
+            windowStartTime = now;
+
+            //Frames are always finished on the animator thread, so its CPU time is the current thread's
+            if (threadBean != null)
+            {
+                long cpuTime = threadBean.getCurrentThreadCpuTime();
+                if (windowStartCpuTime > 0L)
+                {
+                    animatorCpuLoad = (cpuTime - windowStartCpuTime)/(double) windowTime;
+                }
+                windowStartCpuTime = cpuTime;
+            }
+            windowCount++;
+        }
+
+        if (resetRequested)
+        {
+            clear();
+            resetRequested = false;
+        }
+    }
+
+    /**
+     * Get the number of one second windows completed, which changes whenever the UPS and FPS do.
+     * @return The number of windows.
+     */
+    public long getWindowCount()
+    {
+        return windowCount;
+    }
+
+    /**
+     * Get the histogram of the game update times.
+     * @return The update times (in nanos).
+     */
+    public LatencyHistogram getUpdateTimes()
+    {
+        return updateTimes;
+    }
+
+    /**
+     * Get the histogram of the frame render times.
+     * @return The render times (in nanos).
+     */
+    public LatencyHistogram getRenderTimes()
+    {
+        return renderTimes;
+    }
+
+    /**
+     * Get the histogram of the frame paint times.
+     * @return The paint times (in nanos).
+     */
+    public LatencyHistogram getPaintTimes()
+    {
+        return paintTimes;
+    }
+
+    /**
+     * Get the histogram of the times the animator overslept by.
+     * @return The oversleep times (in nanos).
+     */
+    public LatencyHistogram getOverSleepTimes()
+    {
+        return overSleepTimes;
+    }
+
+    /**
+     * Set the name of the strategy the animator waits for each frame with.
+     * @param waitStrategy The wait strategy.
+     */
+    public void setWaitStrategy(WaitStrategy waitStrategy)
+    {
+        this.waitStrategy = waitStrategy.name();
+    }
+
+    public String getWaitStrategy()
+    {
+        return waitStrategy;
+    }
+
+    public double getAnimatorCpuLoad()
+    {
+        return animatorCpuLoad;
+    }
+
+    public double getUpdatesPerSecond()
+    {
+        return updatesPerSecond;
+    }
+
+    public double getFramesPerSecond()
+    {
+        return framesPerSecond;
+    }
+
+    public long getUpdateCount()
+    {
+        return updateCount;
+    }
+
+    public long getFrameCount()
+    {
+        return frameCount;
+    }
+
+    public long getSkippedFrames()
+    {
+        return skippedFrames;
+    }
+
+    public long getDroppedFrames()
+    {
+        return droppedFrames;
+    }
+
+    public long getYieldCount()
+    {
+        return yieldCount;
+    }
+
+    public long getPixelsRedrawn()
+    {
+        return pixelsRedrawn;
+    }
+
+    public long getTotalPixelsRedrawn()
+    {
+        return totalPixelsRedrawn;
+    }
+
+    public double getUpdateTimeP50()
+    {
+        return updateTimes.getValueAtPercentile(50.0)/1000.0;
+    }
+
+    public double getUpdateTimeP99()
+    {
+        return updateTimes.getValueAtPercentile(99.0)/1000.0;
+    }
+
+    public double getUpdateTimeMax()
+    {
+        return updateTimes.getMax()/1000.0;
+    }
+
+    public double getRenderTimeP50()
+    {
+        return renderTimes.getValueAtPercentile(50.0)/1000.0;
+    }
+
+    public double getRenderTimeP99()
+    {
+        return renderTimes.getValueAtPercentile(99.0)/1000.0;
+    }
+
+    public double getRenderTimeMax()
+    {
+        return renderTimes.getMax()/1000.0;
+    }
+
+    public double getPaintTimeP50()
+    {
+        return paintTimes.getValueAtPercentile(50.0)/1000.0;
+    }
+
+    public double getPaintTimeP99()
+    {
+        return paintTimes.getValueAtPercentile(99.0)/1000.0;
+    }
+
+    public double getPaintTimeMax()
+    {
+        return paintTimes.getMax()/1000.0;
+    }
+
+    public double getOverSleepTimeP50()
+    {
+        return overSleepTimes.getValueAtPercentile(50.0)/1000.0;
+    }
+
+    public double getOverSleepTimeP99()
+    {
+        return overSleepTimes.getValueAtPercentile(99.0)/1000.0;
+    }
+
+    public double getOverSleepTimeMax()
+    {
+        return overSleepTimes.getMax()/1000.0;
+    }
+
+    /**
+     * Request that all of the recorded times and counts are forgotten. This can be called from any
+     * thread (e.g. through JMX), the animator thread clears the stats after its next frame.
+     */
+    public void reset()
+    {
+        resetRequested = true;
+    }
+
+    /**
+     * Clear all of the recorded times and counts.
+     */
+    private void clear()
+    {
+        updateTimes.reset();
+        renderTimes.reset();
+        paintTimes.reset();
+        overSleepTimes.reset();
+        updateCount = 0L;
+        frameCount = 0L;
+        skippedFrames = 0L;
+        droppedFrames = 0L;
+        yieldCount = 0L;
+        pixelsRedrawn = 0L;
+        totalPixelsRedrawn = 0L;
+    }
+}
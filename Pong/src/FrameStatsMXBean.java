@@ -0,0 +1,79 @@
+/**
+ * Date: 10/17/2026
+ */
+public interface FrameStatsMXBean
+{
+    /** @return The name of the strategy the animator waits for each frame with. */
+    String getWaitStrategy();
+
+    /** @return The fraction of one core the animator thread used in the last full second, or -1 if unknown. */
+    double getAnimatorCpuLoad();
+
+    /** @return The number of updates in the last full second. */
+    double getUpdatesPerSecond();
+
+    /** @return The number of frames rendered in the last full second. */
+    double getFramesPerSecond();
+
+    /** @return The total number of updates. */
+    long getUpdateCount();
+
+    /** @return The total number of frames rendered. */
+    long getFrameCount();
+
+    /** @return The number of updates run without rendering to catch up with the UPS. */
+    long getSkippedFrames();
+
+    /** @return The number of frames dropped because the loop fell more than a frame behind. */
+    long getDroppedFrames();
+
+    /** @return The number of times the animator yielded because it hadn't slept for too long. */
+    long getYieldCount();
+
+    /** @return The number of pixels redrawn in the last frame. */
+    long getPixelsRedrawn();
+
+    /** @return The total number of pixels redrawn in all frames. */
+    long getTotalPixelsRedrawn();
+
+    /** @return The median time taken by a game update (in micros). */
+    double getUpdateTimeP50();
+
+    /** @return The 99th percentile time taken by a game update (in micros). */
+    double getUpdateTimeP99();
+
+    /** @return The longest time taken by a game update (in micros). */
+    double getUpdateTimeMax();
+
+    /** @return The median time taken to render a frame (in micros). */
+    double getRenderTimeP50();
+
+    /** @return The 99th percentile time taken to render a frame (in micros). */
+    double getRenderTimeP99();
+
+    /** @return The longest time taken to render a frame (in micros). */
+    double getRenderTimeMax();
+
+    /** @return The median time taken to paint a frame onto the screen (in micros). */
+    double getPaintTimeP50();
+
+    /** @return The 99th percentile time taken to paint a frame onto the screen (in micros). */
+    double getPaintTimeP99();
+
+    /** @return The longest time taken to paint a frame onto the screen (in micros). */
+    double getPaintTimeMax();
+
+    /** @return The median time the animator overslept by (in micros). */
+    double getOverSleepTimeP50();
+
+    /** @return The 99th percentile time the animator overslept by (in micros). */
+    double getOverSleepTimeP99();
+
+    /** @return The longest time the animator overslept by (in micros). */
+    double getOverSleepTimeMax();
+
+    /**
+     * Forget all of the recorded times and counts.
+     */
+    void reset();
+}
@@ -0,0 +1,152 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Date: 10/17/2026
+ */
+public class HeadlessPong
+{
+    /** The number of matches played when no count is given */
+    private static final int DEFAULT_MATCHES = 10000;
+
+    /**
+     * Play a number of matches back to back without a display, feeding both paddles
+     * pseudo-random inputs, and report the ticks and matches per second. Exits with 1 if updating allocated memory.
+     * @param args An optional integer specifying the number of matches to play, at least 2.
+     */
+    public static void main(String[] args)
+    {
+        try
+        {
+            args = PongConfig.init(args);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
+        int matches = DEFAULT_MATCHES;
+        if (args.length > 0)
+        {
+            try
+            {
+                matches = Integer.parseInt(args[0]);
+            }
+            catch (NumberFormatException e)
+            {
+                System.out.println("Unable to set requested match count: " + args[0] + "\nPlease enter only integers. Exiting...");
+                return;
+            }
+            //The allocation check measures the second half of the matches, so it needs at least two
+            if (matches < 2)
+            {
+                System.out.println("Unable to set requested match count: " + matches + "\nPlease play at least 2 matches. Exiting...");
+                return;
+            }
+        }
+
+        //Log every match's events to one file if one was given with -Dpong.telemetry=<file>
+        String telemetryPath = PongConfig.get().getString("pong.telemetry", null);
+        TelemetryLog telemetry = null;
+        if (telemetryPath != null)
+        {
+            try
+            {
+                telemetry = new TelemetryLog(telemetryPath);
+            }
+            catch (IOException e)
+            {
+                System.out.println("Unable to log telemetry to " + telemetryPath + ": " + e);
+            }
+        }
+
+        //State for the xorshift generator used to fake the players' inputs
+        int inputSeed = 0x2545F491;
+        long totalTicks = 0L;
+
+        //The HotSpot thread bean counts the bytes this thread allocates, if the JVM supports it
+        com.sun.management.ThreadMXBean threadBean = getAllocationBean();
+        long threadId = Thread.currentThread().getId();
+        //The bytes allocated while updating, this excludes creating each PongSimulation and the first
+        //half of the matches, where the JIT compiling and deoptimizing the loop can allocate a few bytes
+        long updateBytes = 0L;
+        long measuredTicks = 0L;
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < matches; i++)
+        {
+            //Seed each match with its number so any of them can be played again
+            PongSimulation sim = new PongSimulation(i);
+            if (telemetry != null)
+            {
+                sim.setTelemetry(telemetry);
+            }
+            long beforeBytes = (threadBean != null) ? threadBean.getThreadAllocatedBytes(threadId) : 0L;
+            while (!sim.isGameOver())
+            {
+                //Hold each set of keys for 8 ticks so the paddles actually travel
+                if ((sim.getTick() & 7) == 0)
+                {
+                    inputSeed ^= inputSeed << 13;
+                    inputSeed ^= inputSeed >>> 17;
+                    inputSeed ^= inputSeed << 5;
+                }
+                sim.update(inputSeed & 0xF);
+            }
+            if ((threadBean != null) && (i >= matches/2))
+            {
+                updateBytes = updateBytes + (threadBean.getThreadAllocatedBytes(threadId) - beforeBytes);
+                measuredTicks = measuredTicks + sim.getTick();
+            }
+            totalTicks = totalTicks + sim.getTick();
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+
+        double seconds = elapsedTime/1000000000.0; //ns --> secs
+        System.out.println("Played " + matches + " matches (" + totalTicks + " ticks) in " + seconds + " s");
+        System.out.println("Ticks per second: " + (long) (totalTicks/seconds));
+        System.out.println("Matches per second: " + (long) (matches/seconds));
+
+        if (telemetry != null)
+        {
+            try
+            {
+                telemetry.close();
+                System.out.println("Logged " + telemetry.getEventCount() + " events to " + telemetryPath);
+            }
+            catch (IOException e)
+            {
+                System.out.println("Unable to finish the telemetry log: " + e);
+            }
+        }
+
+        //The tick path should never allocate, any garbage here is a regression
+        if (threadBean != null)
+        {
+            System.out.println("Bytes allocated by update(): " + updateBytes + " (" + ((double) updateBytes/measuredTicks) + " per tick)");
+            if (updateBytes > 0L)
+            {
+                System.out.println("Warning: the update path allocated memory");
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Get the thread bean used to measure allocations, if this JVM can count the bytes allocated by a thread.
+     * @return The HotSpot ThreadMXBean with allocation counting enabled, or null if it is unsupported.
+     */
+    static com.sun.management.ThreadMXBean getAllocationBean()
+    {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)
+        {
+            com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            if (threadBean.isThreadAllocatedMemorySupported())
+            {
+                threadBean.setThreadAllocatedMemoryEnabled(true);
+                return threadBean;
+            }
+        }
+        return null;
+    }
+}
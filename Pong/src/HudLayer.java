@@ -0,0 +1,227 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Date: 10/17/2026
+ */
+public class HudLayer
+{
+    /** The component the HUD is drawn onto, used to create images compatible with its display */
+    private Component component;
+    /** The font used to display the stats */
+    private Font font;
+    /** The font metrics used to size the text images */
+    private FontMetrics fontMetrics;
+    /** The color used to display the stats */
+    private Color color;
+    /** The smaller font used for the performance overlay */
+    private Font overlayFont;
+    /** The font metrics used to size the overlay images */
+    private FontMetrics overlayMetrics;
+
+    /** The number of lines in the performance overlay */
+    private static final int OVERLAY_LINES = 6;
+    /** The x-coordinate of the performance overlay, it sits in the top right of the panel */
+    private static final int OVERLAY_X = PongPanel.PWIDTH/2 + 10;
+
+    /** The rendered text for the left score */
+    private BufferedImage leftScoreImage;
+    /** The rendered text for the right score */
+    private BufferedImage rightScoreImage;
+    /** The rendered text for the game time, or game over message */
+    private BufferedImage timeImage;
+    /** The rendered text for the credits shown once the game is over */
+    private BufferedImage creditsImage;
+
+    /** The rendered lines of the performance overlay */
+    private BufferedImage[] overlayImages = new BufferedImage[OVERLAY_LINES];
+    /** The stats window the overlay was last rendered for, -1 means not rendered yet */
+    private long overlayWindowShown = -1L;
+    /** Determines if the overlay is shown */
+    private boolean overlayShown;
+
+    /** The values the images were last rendered for, -1 means not rendered yet */
+    private int leftScoreShown = -1;
+    private int rightScoreShown = -1;
+    private int timeShown = -1;
+    private boolean gameOverShown;
+
+    /**
+     * A HudLayer displays the scores and the game time. The text is rendered into images only when
+     * the values change, which is at most once a second, and the images are copied onto each frame.
+     * This means no strings are built or laid out while drawing a frame.
+     * @param component The component the HUD is drawn onto.
+     * @param font The font used to display the stats.
+     * @param color The color used to display the stats.
+     */
+    public HudLayer(Component component, Font font, Color color)
+    {
+        this.component = component;
+        this.font = font;
+        this.color = color;
+        fontMetrics = component.getFontMetrics(font);
+        overlayFont = font.deriveFont(12.0f);
+        overlayMetrics = component.getFontMetrics(overlayFont);
+    }
+
+    /**
+     * Update the values shown by the HUD, any text whose value changed is rendered again.
+     * @param leftScore The score for the left paddle.
+     * @param rightScore The score for the right paddle.
+     * @param timeSpentInGame The time spent playing the game (in secs).
+     * @param gameOver Determines if the game has ended.
+     */
+    public void update(int leftScore, int rightScore, int timeSpentInGame, boolean gameOver)
+    {
+        if (leftScore != leftScoreShown)
+        {
+            leftScoreImage = renderText("Score - " + leftScore + "/" + PongSimulation.WINNING_SCORE, font, fontMetrics);
+            leftScoreShown = leftScore;
+        }
+        if (rightScore != rightScoreShown)
+        {
+            rightScoreImage = renderText("Score - " + rightScore + "/" + PongSimulation.WINNING_SCORE, font, fontMetrics);
+            rightScoreShown = rightScore;
+        }
+        if ((timeSpentInGame != timeShown) || (gameOver != gameOverShown))
+        {
+            if (!gameOver)
+            {
+                timeImage = renderText("Game time - " + timeSpentInGame, font, fontMetrics);
+            }
+            else
+            {
+                timeImage = renderText("Game Over! Time - " + timeSpentInGame, font, fontMetrics);
+            }
+            timeShown = timeSpentInGame;
+            gameOverShown = gameOver;
+        }
+        if (creditsImage == null)
+        {
+            creditsImage = renderText("Created by - Logan Karstetter", font, fontMetrics);
+        }
+    }
+
+    /**
+     * Update the performance overlay. The overlay is rendered again once a second, when the
+     * stats work out a new UPS and FPS, so the text doesn't flicker and costs nothing in between.
+     * @param stats The stats of the game loop.
+     * @param visible Determines if the overlay is shown.
+     * @return True if the overlay was shown, hidden, or rendered again, so its area must be redrawn.
+     */
+    public boolean updateOverlay(FrameStats stats, boolean visible)
+    {
+        boolean changed = (visible != overlayShown);
+        overlayShown = visible;
+
+        if (visible && (stats.getWindowCount() != overlayWindowShown))
+        {
+            overlayImages[0] = renderText(String.format("UPS %.1f  FPS %.1f", stats.getUpdatesPerSecond(),
+                    stats.getFramesPerSecond()), overlayFont, overlayMetrics);
+            overlayImages[1] = renderTimes("Update", stats.getUpdateTimes());
+            overlayImages[2] = renderTimes("Render", stats.getRenderTimes());
+            overlayImages[3] = renderTimes("Paint", stats.getPaintTimes());
+            overlayImages[4] = renderText("Skipped " + stats.getSkippedFrames() + "  Dropped " + stats.getDroppedFrames()
+                    + "  Yields " + stats.getYieldCount(), overlayFont, overlayMetrics);
+            overlayImages[5] = renderText(String.format("Wait %s oversleep p99 %.3f ms  CPU %.0f%%", stats.getWaitStrategy(),
+                    stats.getOverSleepTimes().getValueAtPercentile(99.0)/1000000.0, stats.getAnimatorCpuLoad() * 100.0),
+                    overlayFont, overlayMetrics);
+            overlayWindowShown = stats.getWindowCount();
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Render a line of the overlay showing the median, 99th percentile, and max of a histogram of times.
+     * @param name The name of the times.
+     * @param times The histogram of times (in nanos).
+     * @return An image of the line.
+     */
+    private BufferedImage renderTimes(String name, LatencyHistogram times)
+    {
+        return renderText(String.format("%s p50 %.3f  p99 %.3f  max %.3f ms", name, times.getValueAtPercentile(50.0)/1000000.0,
+                times.getValueAtPercentile(99.0)/1000000.0, times.getMax()/1000000.0), overlayFont, overlayMetrics);
+    }
+
+    /**
+     * Get the x-coordinate of the performance overlay.
+     * @return The x-coordinate.
+     */
+    public int getOverlayX()
+    {
+        return OVERLAY_X;
+    }
+
+    /**
+     * Get the height of the performance overlay, it starts at the top of the panel.
+     * @return The height.
+     */
+    public int getOverlayHeight()
+    {
+        return 5 + OVERLAY_LINES * overlayMetrics.getHeight();
+    }
+
+    /**
+     * Draw the HUD images at the positions the stats have always been printed at.
+     * @param dbGraphics The graphics to draw the HUD with.
+     */
+    public void draw(Graphics dbGraphics)
+    {
+        if (timeImage == null)
+        {
+            return;
+        }
+
+        //The images start at the top of the text, so move them up from the baseline by the ascent
+        int ascent = fontMetrics.getAscent();
+        dbGraphics.drawImage(leftScoreImage, 5, PongPanel.PHEIGHT - 5 - ascent, null);
+        dbGraphics.drawImage(rightScoreImage, PongPanel.PWIDTH - 115, PongPanel.PHEIGHT - 5 - ascent, null);
+        dbGraphics.drawImage(timeImage, 5, 20 - ascent, null);
+        if (gameOverShown)
+        {
+            dbGraphics.drawImage(creditsImage, 5, 45 - ascent, null);
+        }
+
+        //Draw the overlay one line under the other
+        if (overlayShown && (overlayImages[0] != null))
+        {
+            for (int i = 0; i < OVERLAY_LINES; i++)
+            {
+                dbGraphics.drawImage(overlayImages[i], OVERLAY_X, 5 + i * overlayMetrics.getHeight(), null);
+            }
+        }
+    }
+
+    /**
+     * Render a line of text into a translucent image just large enough to hold it. The image is
+     * compatible with the component's display when it has one, so copying it is as fast as possible.
+     * @param text The text to render.
+     * @param textFont The font to render the text in.
+     * @param textMetrics The metrics of the font.
+     * @return An image of the text.
+     */
+    private BufferedImage renderText(String text, Font textFont, FontMetrics textMetrics)
+    {
+        int width = Math.max(1, textMetrics.stringWidth(text));
+        int height = textMetrics.getAscent() + textMetrics.getDescent();
+
+        BufferedImage textImage;
+        GraphicsConfiguration gc = component.getGraphicsConfiguration();
+        if (gc != null)
+        {
+            textImage = gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        else
+        {
+            textImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+
+        Graphics2D textGraphics = textImage.createGraphics();
+        textGraphics.setFont(textFont);
+        textGraphics.setColor(color);
+        textGraphics.drawString(text, 0, textMetrics.getAscent());
+        textGraphics.dispose();
+        return textImage;
+    }
+}
@@ -0,0 +1,94 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Date: 10/17/2026
+ */
+public class ImageBackend implements RenderBackend
+{
+    /** The image the frames are rendered into */
+    private BufferedImage image;
+    /** The graphics used to draw into the image */
+    private Graphics2D imageGraphics;
+    /** Determines if the image holds the previous frame */
+    private boolean hasPreviousFrame;
+    /** Determines if every frame should be drawn in full, even though the image keeps the previous one */
+    private boolean alwaysRedraw;
+    /** The number of frames shown, read by other threads to see when a frame is drawn */
+    private volatile long frameCount;
+
+    /**
+     * A backend that renders frames into a BufferedImage and never shows them on a screen. This lets
+     * the game be rendered without a display, e.g. for benchmarks or exporting frames.
+     * @param image The image to render into, it should be the size of the PongPanel.
+     * @param alwaysRedraw Determines if every frame is drawn in full rather than only the parts that changed.
+     */
+    public ImageBackend(BufferedImage image, boolean alwaysRedraw)
+    {
+        this.image = image;
+        this.alwaysRedraw = alwaysRedraw;
+        imageGraphics = image.createGraphics();
+    }
+
+    /**
+     * Get the graphics for the image.
+     * @return The graphics to draw the frame with.
+     */
+    public Graphics beginFrame()
+    {
+        return imageGraphics;
+    }
+
+    /**
+     * The frame is already in the image, so there is nothing to show, it is only counted.
+     */
+    public void showFrame()
+    {
+        hasPreviousFrame = !alwaysRedraw;
+        frameCount++;
+    }
+
+    /**
+     * Determine whether the image still holds the previous frame.
+     * @return True if the previous frame is intact in the image and only changes need to be drawn.
+     */
+    public boolean hasPreviousFrame()
+    {
+        return hasPreviousFrame;
+    }
+
+    /**
+     * Release the graphics for the image, the image itself belongs to the caller.
+     */
+    public void dispose()
+    {
+        imageGraphics.dispose();
+    }
+
+    /**
+     * Get the name used to select this backend.
+     * @return "image"
+     */
+    public String getName()
+    {
+        return "image";
+    }
+
+    /**
+     * Get the number of frames shown.
+     * @return The number of frames.
+     */
+    public long getFrameCount()
+    {
+        return frameCount;
+    }
+
+    /**
+     * Get the image the frames are rendered into.
+     * @return The image.
+     */
+    public BufferedImage getImage()
+    {
+        return image;
+    }
+}
@@ -0,0 +1,124 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Date: 10/17/2026
+ */
+public class InputEventQueue
+{
+    /** The number of events the queue can hold, this must be a power of two */
+    private static final int CAPACITY = 1024;
+    /** The mask used to wrap a sequence number around to an index in the ring */
+    private static final int MASK = CAPACITY - 1;
+
+    /** The key codes of the queued events */
+    private int[] keyCodes = new int[CAPACITY];
+    /** Determines whether each queued event was a press (true) or release (false) */
+    private boolean[] presses = new boolean[CAPACITY];
+    /** The times the queued events happened (in nanos) */
+    private long[] times = new long[CAPACITY];
+
+    /** The sequence number of the next event to be read, only advanced by the consumer */
+    private final AtomicLong head = new AtomicLong();
+    /** The sequence number of the next event to be written, only advanced by the producer */
+    private final AtomicLong tail = new AtomicLong();
+    /** The number of events dropped because the queue was full, only written by the producer */
+    private volatile long droppedEvents;
+
+    /** The sequence number of the next event the consumer will read, only used by the consumer */
+    private long nextRead;
+    /** The slot read by the last call to poll() */
+    private int polledIndex;
+
+    /**
+     * An InputEventQueue passes timestamped key events from a single producer (the event dispatch
+     * thread) to a single consumer (the animator thread) without locking. Events are written into a
+     * fixed ring of primitive arrays, and the head and tail sequence numbers publish them between the
+     * threads, so nothing is allocated or boxed per event.
+     */
+    public InputEventQueue()
+    {
+        //The arrays are created with the queue, nothing else to set up
+    }
+
+    /**
+     * Add an event to the queue. This must only be called by the producer thread. If the consumer has
+     * fallen so far behind that the queue is full the event is dropped and counted.
+     * @param keyCode The key code of the event.
+     * @param pressed Determines whether the key was pressed (true) or released (false).
+     * @param time The time the event happened (in nanos).
+     * @return True if the event was queued.
+     */
+    public boolean offer(int keyCode, boolean pressed, long time)
+    {
+        long currentTail = tail.get();
+        if (currentTail - head.get() >= CAPACITY)
+        {
+            droppedEvents = droppedEvents + 1;
+            return false;
+        }
+
+        int index = (int) currentTail & MASK;
+        keyCodes[index] = keyCode;
+        presses[index] = pressed;
+        times[index] = time;
+        //Publish the event, the ordered write makes the array writes above visible to the consumer first
+        tail.lazySet(currentTail + 1);
+        return true;
+    }
+
+    /**
+     * Take the next event from the queue. This must only be called by the consumer thread. The event
+     * can be read with getKeyCode(), isPressed(), and getTime() until the next call to poll().
+     * @return True if there was an event, false if the queue is empty.
+     */
+    public boolean poll()
+    {
+        //Hand the previously polled slot back to the producer, it had to stay reserved until now
+        //because its event could still be read
+        head.lazySet(nextRead);
+        if (nextRead == tail.get())
+        {
+            return false;
+        }
+
+        polledIndex = (int) nextRead & MASK;
+        nextRead++;
+        return true;
+    }
+
+    /**
+     * Get the key code of the event taken by the last poll().
+     * @return The key code.
+     */
+    public int getKeyCode()
+    {
+        return keyCodes[polledIndex];
+    }
+
+    /**
+     * Determine whether the event taken by the last poll() was a key press.
+     * @return True for a press, false for a release.
+     */
+    public boolean isPressed()
+    {
+        return presses[polledIndex];
+    }
+
+    /**
+     * Get the time the event taken by the last poll() happened.
+     * @return The time of the event (in nanos).
+     */
+    public long getTime()
+    {
+        return times[polledIndex];
+    }
+
+    /**
+     * Get the number of events dropped because the queue was full.
+     * @return The number of dropped events.
+     */
+    public long getDroppedEvents()
+    {
+        return droppedEvents;
+    }
+}
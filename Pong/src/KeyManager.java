@@ -1,6 +1,5 @@
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.util.HashMap;
 
 /**
  * @author Logan Karstetter
@@ -8,9 +7,17 @@ import java.util.HashMap;
  */
 public class KeyManager implements KeyListener
 {
-    /** A HashMap of booleans determining if a key has been pressed.
-     * The key values for the map are the unique KeyCodes for each key. */
-    private HashMap<Integer, Boolean> keys;
+    /** The key bit set when the esc button is held, the paddle keys use the PongSimulation input bits */
+    private static final int ESCAPE = 1 << 4;
+    /** The key bit set when F3 is held, which toggles the stats overlay */
+    private static final int OVERLAY = 1 << 5;
+    /** The key bit set when R is held, which starts a rematch once the game is over */
+    private static final int REMATCH = 1 << 6;
+
+    /** The queue that passes key events from the event dispatch thread to the animator thread */
+    private InputEventQueue events;
+    /** A bitmask of the keys currently held down, only used by the animator thread */
+    private int heldKeys;
 
     /** Determines if the esc button is pressed */
     private boolean escape;
@@ -23,14 +30,21 @@ public class KeyManager implements KeyListener
     /** Determines if the right paddle's down key was pressed */
     public boolean rightDown;
 
+    /** The total time between key events happening and being read by update() (in nanos) */
+    private long totalLatency;
+    /** The longest time between a key event happening and being read by update() (in nanos) */
+    private long maxLatency;
+    /** The number of key events read by update() */
+    private long eventCount;
+
     /** A reference to the PongPanel this KeyManager listens for */
     private PongPanel pPanel;
 
     /**
-     * A KeyManager is used to process concurrent keyboard inputs. The manager maintains
-     * a HashMap of boolean values corresponding to each relevant key. When a key is pressed/held
-     * the value in the HashMap is set to true using the keyCode as the key. The value is set to
-     * false when a key is released.
+     * A KeyManager is used to process concurrent keyboard inputs. Key presses and releases are
+     * timestamped and queued as they arrive on the event dispatch thread, then drained once per
+     * update on the animator thread. A key that is pressed and released between two updates still
+     * counts as pressed for the next update, so quick taps are never lost.
      * @param pPanel The PongPanel this KeyManager handles KeyEvents for.
      */
     public KeyManager(PongPanel pPanel)
@@ -38,26 +52,57 @@ public class KeyManager implements KeyListener
         //Store the reference to the PongPanel
         this.pPanel = pPanel;
 
-        //Create the keys map
-        keys = new HashMap<>();
-        keys.put(KeyEvent.VK_ESCAPE, false);
-        keys.put(KeyEvent.VK_A, false);
-        keys.put(KeyEvent.VK_Z, false);
-        keys.put(KeyEvent.VK_K, false);
-        keys.put(KeyEvent.VK_M, false);
+        //Create the queue of key events
+        events = new InputEventQueue();
     }
 
     /**
-     * Update the KeyManager's escape, leftUp, leftDown, rightUp, and rightDown key boolean values.
+     * Update the KeyManager's escape, leftUp, leftDown, rightUp, and rightDown key boolean values
+     * from the key events that arrived since the last update.
      */
     public void update()
     {
-        //Set the booleans according to the map contents
-        escape = keys.get(KeyEvent.VK_ESCAPE);
-        leftUp = keys.get(KeyEvent.VK_A);
-        leftDown = keys.get(KeyEvent.VK_Z);
-        rightUp = keys.get(KeyEvent.VK_K);
-        rightDown = keys.get(KeyEvent.VK_M);
+        //The keys pressed at any point since the last update, even if they have been released again
+        int pressedKeys = heldKeys;
+
+        //Apply each queued event in the order it happened
+        long now = System.nanoTime();
+        while (events.poll())
+        {
+            int key = getKeyBit(events.getKeyCode());
+            if (events.isPressed())
+            {
+                //Toggle the overlay once per press, not for every repeat while F3 is held
+                if ((key == OVERLAY) && ((heldKeys & OVERLAY) == 0))
+                {
+                    pPanel.toggleOverlay();
+                }
+                //Likewise ask for a rematch once per press
+                if ((key == REMATCH) && ((heldKeys & REMATCH) == 0))
+                {
+                    pPanel.rematch();
+                }
+                heldKeys = heldKeys | key;
+                pressedKeys = pressedKeys | key;
+            }
+            else
+            {
+                heldKeys = heldKeys & ~key;
+            }
+
+            //Measure how long the event waited to reach the simulation
+            long latency = now - events.getTime();
+            totalLatency = totalLatency + latency;
+            maxLatency = Math.max(maxLatency, latency);
+            eventCount++;
+        }
+
+        //Set the booleans according to the keys pressed
+        escape = (pressedKeys & ESCAPE) != 0;
+        leftUp = (pressedKeys & PongSimulation.LEFT_UP) != 0;
+        leftDown = (pressedKeys & PongSimulation.LEFT_DOWN) != 0;
+        rightUp = (pressedKeys & PongSimulation.RIGHT_UP) != 0;
+        rightDown = (pressedKeys & PongSimulation.RIGHT_DOWN) != 0;
 
         //Check if escape is set to true, stop the game
         if (escape)
@@ -67,23 +112,101 @@ public class KeyManager implements KeyListener
     }
 
     /**
-     * Invoked when a key is pressed. The keyCode of the keyEvent is used to
-     * set the corresponding boolean in the keys HashMap.
+     * Get the paddle keys read by the last update() as a PongSimulation input bitmask.
+     * @return A bitmask of the LEFT_UP, LEFT_DOWN, RIGHT_UP, and RIGHT_DOWN inputs.
+     */
+    public int getInputs()
+    {
+        int inputs = 0;
+        if (leftUp)
+        {
+            inputs = inputs | PongSimulation.LEFT_UP;
+        }
+        if (leftDown)
+        {
+            inputs = inputs | PongSimulation.LEFT_DOWN;
+        }
+        if (rightUp)
+        {
+            inputs = inputs | PongSimulation.RIGHT_UP;
+        }
+        if (rightDown)
+        {
+            inputs = inputs | PongSimulation.RIGHT_DOWN;
+        }
+        return inputs;
+    }
+
+    /**
+     * Get the average time between a key event happening and being read into the simulation.
+     * @return The average input latency (in nanos), or 0 if no events have been read.
+     */
+    public long getAverageLatency()
+    {
+        return (eventCount > 0) ? totalLatency/eventCount : 0L;
+    }
+
+    /**
+     * Get the longest time between a key event happening and being read into the simulation.
+     * @return The max input latency (in nanos).
+     */
+    public long getMaxLatency()
+    {
+        return maxLatency;
+    }
+
+    /**
+     * Get the key bit for a key code.
+     * @param keyCode The key code of a KeyEvent.
+     * @return The key bit, or 0 if the key isn't used by the game.
+     */
+    private static int getKeyBit(int keyCode)
+    {
+        switch (keyCode)
+        {
+            case KeyEvent.VK_ESCAPE:
+                return ESCAPE;
+            case KeyEvent.VK_A:
+                return PongSimulation.LEFT_UP;
+            case KeyEvent.VK_Z:
+                return PongSimulation.LEFT_DOWN;
+            case KeyEvent.VK_K:
+                return PongSimulation.RIGHT_UP;
+            case KeyEvent.VK_M:
+                return PongSimulation.RIGHT_DOWN;
+            case KeyEvent.VK_F3:
+                return OVERLAY;
+            case KeyEvent.VK_R:
+                return REMATCH;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Invoked when a key is pressed. The press is timestamped and queued
+     * for the next update, as long as the key is used by the game.
      * @param e A KeyEvent
      */
     public void keyPressed(KeyEvent e)
     {
-        keys.replace(e.getKeyCode(), true);
+        if (getKeyBit(e.getKeyCode()) != 0)
+        {
+            events.offer(e.getKeyCode(), true, System.nanoTime());
+        }
     }
 
     /**
-     * Invoked when a key is released. The keyCode of the keyEvent is used to
-     * set the corresponding boolean in the keys HashMap.
+     * Invoked when a key is released. The release is timestamped and queued
+     * for the next update, as long as the key is used by the game.
      * @param e A KeyEvent
      */
     public void keyReleased(KeyEvent e)
     {
-        keys.replace(e.getKeyCode(), false);
+        if (getKeyBit(e.getKeyCode()) != 0)
+        {
+            events.offer(e.getKeyCode(), false, System.nanoTime());
+        }
     }
 
     /**
@@ -0,0 +1,30 @@
+/**
+ * Date: 10/17/2026
+ */
+public class KeyboardController implements PaddleController
+{
+    /** The KeyManager the keys are read from */
+    private KeyManager keyManager;
+
+    /**
+     * A KeyboardController moves a paddle with the keys read by a KeyManager, A and Z for the
+     * left paddle and K and M for the right paddle.
+     * @param keyManager The KeyManager the keys are read from.
+     */
+    public KeyboardController(KeyManager keyManager)
+    {
+        this.keyManager = keyManager;
+    }
+
+    /**
+     * Decide which way to move a paddle from the keys held this tick.
+     * @param sim The simulation the paddle is in.
+     * @param leftSide Determines whether the controller is moving the left or right paddle.
+     * @return A bitmask of UP and DOWN.
+     */
+    public int decide(PongSimulation sim, boolean leftSide)
+    {
+        int inputs = keyManager.getInputs();
+        return leftSide ? (inputs & (UP | DOWN)) : ((inputs >> 2) & (UP | DOWN));
+    }
+}
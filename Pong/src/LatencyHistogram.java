@@ -0,0 +1,157 @@
+/**
+ * Date: 10/17/2026
+ */
+public class LatencyHistogram
+{
+    /** The number of bits of precision kept for each value, each power of two is split into 2^SUB_BUCKET_BITS buckets */
+    private static final int SUB_BUCKET_BITS = 5;
+    /** The number of buckets for each power of two */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** The largest power of two recorded, larger values are counted in the last bucket (2^40 nanos is about 18 mins) */
+    private static final int MAX_MAGNITUDE = 40;
+
+    /** The number of values recorded in each bucket */
+    private long[] counts = new long[SUB_BUCKETS + (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+    /** The number of values recorded */
+    private long count;
+    /** The sum of the values recorded */
+    private long total;
+    /** The largest value recorded */
+    private long max;
+
+    /**
+     * A LatencyHistogram counts values (usually times in nanos) in log-linear buckets, in the style of
+     * an HDR histogram. Small values are counted exactly and larger values to within about 3%, so the
+     * percentiles of times from nanoseconds to minutes can be read from a fixed array of counts.
+     * Recording a value never allocates. Values are recorded by a single thread, other threads may
+     * read the histogram while it is recorded into and see slightly stale results.
+     */
+    public LatencyHistogram()
+    {
+        //The buckets are created with the histogram, nothing else to set up
+    }
+
+    /**
+     * Record a value.
+     * @param value The value to record, negative values are counted as 0.
+     */
+    public void record(long value)
+    {
+        value = Math.max(0L, value);
+        counts[getIndex(value)]++;
+        count++;
+        total = total + value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Get the bucket a value is counted in.
+     * @param value The value.
+     * @return The index of the bucket.
+     */
+    private static int getIndex(long value)
+    {
+        if (value < SUB_BUCKETS)
+        {
+            return (int) value;
+        }
+
+        //Split each power of two into SUB_BUCKETS buckets using the bits after the highest one bit
+        int magnitude = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_MAGNITUDE);
+        int subBucket = (int) Math.min((value >>> (magnitude - SUB_BUCKET_BITS)) - SUB_BUCKETS, SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (magnitude - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Get the middle of the range of values counted in a bucket.
+     * @param index The index of the bucket.
+     * @return The value the bucket stands for.
+     */
+    private static long getValue(int index)
+    {
+        if (index < SUB_BUCKETS)
+        {
+            return index;
+        }
+
+        int magnitude = (index - SUB_BUCKETS)/SUB_BUCKETS + SUB_BUCKET_BITS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long bucketWidth = 1L << (magnitude - SUB_BUCKET_BITS);
+        return (SUB_BUCKETS + subBucket) * bucketWidth + bucketWidth/2;
+    }
+
+    /**
+     * Add all of the values recorded in another histogram to this one, this is used to combine the
+     * histograms recorded by several threads.
+     * @param other The histogram to add.
+     */
+    public void add(LatencyHistogram other)
+    {
+        for (int i = 0; i < counts.length; i++)
+        {
+            counts[i] = counts[i] + other.counts[i];
+        }
+        count = count + other.count;
+        total = total + other.total;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Get the value below which the given percentage of the recorded values fall.
+     * @param percentile The percentile (0.0 to 100.0).
+     * @return The value at the percentile, or 0 if nothing has been recorded.
+     */
+    public long getValueAtPercentile(double percentile)
+    {
+        long target = (long) Math.ceil(count * percentile/100.0);
+        long seen = 0L;
+        for (int i = 0; i < counts.length; i++)
+        {
+            seen = seen + counts[i];
+            if ((seen >= target) && (seen > 0L))
+            {
+                //Never report more than the largest value actually recorded
+                return Math.min(getValue(i), max);
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Get the number of values recorded.
+     * @return The count.
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Get the mean of the values recorded.
+     * @return The mean, or 0 if nothing has been recorded.
+     */
+    public double getMean()
+    {
+        return (count > 0L) ? (double) total/count : 0.0;
+    }
+
+    /**
+     * Get the largest value recorded.
+     * @return The max.
+     */
+    public long getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Forget all of the recorded values.
+     */
+    public void reset()
+    {
+        java.util.Arrays.fill(counts, 0L);
+        count = 0L;
+        total = 0L;
+        max = 0L;
+    }
+}
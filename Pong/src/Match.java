@@ -0,0 +1,14 @@
+import java.io.IOException;
+
+/**
+ * Date: 10/17/2026
+ */
+public interface Match
+{
+    /**
+     * Advance the match by one tick. A MatchServer calls this PongSimulation.UPS times per second,
+     * never from two threads at once, but not always from the same thread.
+     * @throws IOException If the match can't reach its players.
+     */
+    void tick() throws IOException;
+}
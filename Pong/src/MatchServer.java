@@ -0,0 +1,312 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Date: 10/17/2026
+ */
+public class MatchServer
+{
+    /** The number of slots in the timing wheel, one turn of the wheel is one tick of every match */
+    private static final int WHEEL_SLOTS = 50;
+    /** The time between ticks of a match (in nanos) */
+    private static final long TICK_TIME = 1000000000L/PongSimulation.UPS;
+    /** The time covered by each slot of the wheel (in nanos) */
+    private static final long SLOT_TIME = TICK_TIME/WHEEL_SLOTS;
+
+    /** The matches due in each slot of the wheel, as linked lists through ScheduledMatch.next */
+    private ScheduledMatch[] wheel = new ScheduledMatch[WHEEL_SLOTS];
+    /** The matches in the order they were added */
+    private ScheduledMatch[] matches = new ScheduledMatch[16];
+    /** The number of matches */
+    private int matchCount;
+
+    /** The fixed pool of threads the ticks run on */
+    private ExecutorService workers;
+    /** The number of worker threads */
+    private int workerCount;
+
+    /** The bean used to measure the CPU time of the whole process, or null if it is unsupported */
+    private com.sun.management.OperatingSystemMXBean osBean;
+
+    /**
+     * A MatchServer runs many matches in one JVM on a small fixed pool of worker threads, rather than a
+     * thread per match. The matches are spread over the slots of a timing wheel so their ticks are staggered
+     * across each tick period instead of all falling due at once. A single timer thread turns the wheel and
+     * hands the due matches to the workers. How late each tick finishes after it fell due is recorded per match.
+     * @param workerCount The number of worker threads.
+     */
+    public MatchServer(int workerCount)
+    {
+        this.workerCount = workerCount;
+        workers = Executors.newFixedThreadPool(workerCount);
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean)
+        {
+            osBean = (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        }
+    }
+
+    /**
+     * Add a match to the next slot of the wheel, it starts ticking on the next turn.
+     * @param match The match.
+     */
+    public void add(Match match)
+    {
+        ScheduledMatch scheduled = new ScheduledMatch(match);
+        int slot = matchCount % WHEEL_SLOTS;
+        scheduled.next = wheel[slot];
+        wheel[slot] = scheduled;
+
+        if (matchCount == matches.length)
+        {
+            matches = Arrays.copyOf(matches, matches.length * 2);
+        }
+        matches[matchCount] = scheduled;
+        matchCount++;
+    }
+
+    /**
+     * Turn the wheel on the calling thread for a number of seconds, reporting the tick latency once a second.
+     * @param seconds The number of seconds to run for.
+     */
+    public void run(int seconds)
+    {
+        long startTime = System.nanoTime();
+        long endTime = startTime + seconds * 1000000000L;
+        long reportTime = startTime + 1000000000L;
+        long startCpuTime = getProcessCpuTime();
+        long windowCpuTime = startCpuTime;
+
+        for (long slotTick = 0L; ; slotTick++)
+        {
+            long dueTime = startTime + slotTick * SLOT_TIME;
+            if (dueTime - endTime >= 0)
+            {
+                break;
+            }
+            WaitStrategy.PARK.waitUntil(dueTime);
+
+            //Hand every match in this slot to the workers, unless its last tick is still running
+            for (ScheduledMatch scheduled = wheel[(int) (slotTick % WHEEL_SLOTS)]; scheduled != null; scheduled = scheduled.next)
+            {
+                if (scheduled.running.compareAndSet(false, true))
+                {
+                    scheduled.dueTime = dueTime;
+                    workers.execute(scheduled);
+                }
+                else
+                {
+                    scheduled.overruns++;
+                }
+            }
+
+            if (dueTime - reportTime >= 0)
+            {
+                long cpuTime = getProcessCpuTime();
+                report((cpuTime - windowCpuTime)/1000000000.0);
+                windowCpuTime = cpuTime;
+                reportTime = reportTime + 1000000000L;
+            }
+        }
+
+        //Let the last ticks finish before the final report
+        workers.shutdown();
+        try
+        {
+            workers.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Total:");
+        report((getProcessCpuTime() - startCpuTime)/1000000000.0/seconds);
+    }
+
+    /**
+     * Print the tick latency of all of the matches together and of the worst match, along with the number of
+     * matches run per core of CPU time used.
+     * @param coresUsed The CPU time used per second of the window, in cores, or 0 if it is unknown.
+     */
+    private void report(double coresUsed)
+    {
+        //The histograms are read while the workers record into them, so the numbers can be very slightly stale
+        LatencyHistogram all = new LatencyHistogram();
+        LatencyHistogram service = new LatencyHistogram();
+        long worstP99 = 0L;
+        long overruns = 0L;
+        for (int i = 0; i < matchCount; i++)
+        {
+            all.add(matches[i].latencies);
+            service.add(matches[i].serviceTimes);
+            worstP99 = Math.max(worstP99, matches[i].latencies.getValueAtPercentile(99.0));
+            overruns = overruns + matches[i].overruns;
+        }
+
+        String perCore = (coresUsed > 0.0) ? String.format("%.0f", matchCount/coresUsed) : "?";
+        System.out.println(String.format("%d matches on %d workers, %d ticks, latency p50 %.3f ms, p99 %.3f ms, max %.3f ms, "
+                + "worst match p99 %.3f ms, tick %.1f us, %d overruns, %.2f cores, %s matches per core",
+                matchCount, workerCount, all.getCount(), all.getValueAtPercentile(50.0)/1000000.0,
+                all.getValueAtPercentile(99.0)/1000000.0, all.getMax()/1000000.0, worstP99/1000000.0,
+                service.getMean()/1000.0, overruns, coresUsed, perCore));
+    }
+
+    /**
+     * Get the CPU time used by the whole process.
+     * @return The CPU time (in nanos), or 0 if it is unknown.
+     */
+    private long getProcessCpuTime()
+    {
+        return (osBean != null) ? Math.max(0L, osBean.getProcessCpuTime()) : 0L;
+    }
+
+    /**
+     * A match on the wheel, with the times of its ticks. A match is only ever handed to one worker at a time,
+     * so its histograms are only recorded into by one thread at a time.
+     */
+    private static class ScheduledMatch implements Runnable
+    {
+        /** The match */
+        private Match match;
+        /** The next match in the same slot of the wheel */
+        private ScheduledMatch next;
+        /** Determines if the match's tick is queued or running */
+        private AtomicBoolean running = new AtomicBoolean();
+        /** The time the current tick fell due (in nanos) */
+        private volatile long dueTime;
+        /** The number of ticks skipped because the previous tick was still running */
+        private volatile long overruns;
+
+        /** The times from each tick falling due to it finishing, and the times the ticks took to run (in nanos) */
+        private LatencyHistogram latencies = new LatencyHistogram();
+        private LatencyHistogram serviceTimes = new LatencyHistogram();
+
+        /**
+         * Create a match on the wheel.
+         * @param match The match.
+         */
+        private ScheduledMatch(Match match)
+        {
+            this.match = match;
+        }
+
+        /**
+         * Run one tick of the match on a worker thread.
+         */
+        public void run()
+        {
+            long startTime = System.nanoTime();
+            try
+            {
+                match.tick();
+            }
+            catch (IOException | RuntimeException e)
+            {
+                System.out.println("Match failed to tick: " + e);
+            }
+            long endTime = System.nanoTime();
+            latencies.record(endTime - dueTime);
+            serviceTimes.record(endTime - startTime);
+            running.set(false);
+        }
+    }
+
+    /**
+     * A match between two bots feeding pseudo-random inputs, a new game is started whenever one ends.
+     */
+    private static class BotMatch implements Match
+    {
+        /** The game being played */
+        private PongSimulation sim;
+        /** The seed of the first game, later games add the number of games played */
+        private long seed;
+        /** The number of games finished */
+        private long games;
+        /** The state of the xorshift generator used to fake the players' inputs */
+        private int inputSeed;
+
+        /**
+         * Create a match between two bots.
+         * @param seed The seed of the first game.
+         */
+        private BotMatch(long seed)
+        {
+            this.seed = seed;
+            sim = new PongSimulation(seed);
+            inputSeed = (int) seed | 1;
+        }
+
+        /**
+         * Advance the game by one tick.
+         */
+        public void tick()
+        {
+            if (sim.isGameOver())
+            {
+                games++;
+                sim.reset(seed + games);
+            }
+
+            //Hold each set of keys for 8 ticks so the paddles actually travel
+            if ((sim.getTick() & 7) == 0)
+            {
+                inputSeed ^= inputSeed << 13;
+                inputSeed ^= inputSeed >>> 17;
+                inputSeed ^= inputSeed << 5;
+            }
+            sim.update(inputSeed & 0xF);
+        }
+    }
+
+    /**
+     * Host many matches in one JVM. The matches are games between bots, unless -Dpong.matches.port=<port> is given,
+     * in which case each match is a networked PongServer listening on its own port counting up from that one.
+     * @param args The number of matches (200 by default), the number of seconds to run for (10 by default), and the
+     *             number of worker threads (the number of cores by default).
+     */
+    public static void main(String[] args)
+    {
+        try
+        {
+            args = PongConfig.init(args);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
+        try
+        {
+            int matchCount = (args.length > 0) ? Integer.parseInt(args[0]) : 200;
+            int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+            int workerCount = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            int basePort = PongConfig.get().getInt("pong.matches.port", -1);
+
+            MatchServer server = new MatchServer(workerCount);
+            for (int i = 0; i < matchCount; i++)
+            {
+                if (basePort >= 0)
+                {
+                    server.add(new PongServer(basePort + i, System.nanoTime()));
+                }
+                else
+                {
+                    server.add(new BotMatch(i));
+                }
+            }
+            server.run(seconds);
+        }
+        catch (NumberFormatException e)
+        {
+            System.out.println("Usage: java MatchServer [matches] [seconds] [workers]");
+        }
+        catch (IOException e)
+        {
+            System.out.println("Unable to open a match: " + e);
+        }
+    }
+}
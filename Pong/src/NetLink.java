@@ -0,0 +1,244 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Random;
+
+/**
+ * Date: 10/17/2026
+ */
+public class NetLink
+{
+    /** The largest packet sent or received, snapshots and inputs are far smaller */
+    public static final int MAX_PACKET = 512;
+    /** The max number of packets held back to add latency */
+    private static final int MAX_DELAYED = 256;
+
+    /** The non-blocking channel packets are sent and received through */
+    private DatagramChannel channel;
+
+    /** The fraction of outgoing packets dropped, to test how the game copes with packet loss */
+    private double lossRate;
+    /** The latency added to each outgoing packet (in nanos) */
+    private long latency;
+    /** The seeded random numbers that decide which packets are dropped */
+    private Random lossRandom;
+
+    /** The packets held back until they are due, in the order they were sent */
+    private byte[][] delayedPackets;
+    private int[] delayedLengths;
+    private long[] delayedTimes;
+    private SocketAddress[] delayedTargets;
+    /** The index of the oldest held back packet and the number held back */
+    private int delayedHead;
+    private int delayedCount;
+
+    /** The bytes and packets sent and received since the link was opened */
+    private long bytesSent;
+    private long bytesReceived;
+    private long packetsSent;
+    private long packetsReceived;
+    private long packetsDropped;
+
+    /** The time the current one second window started (in nanos) */
+    private long windowStartTime;
+    /** The bytes sent and received at the start of the current window */
+    private long windowBytesSent;
+    private long windowBytesReceived;
+    /** The bytes sent and received per second over the last full window */
+    private double sentPerSecond;
+    private double receivedPerSecond;
+
+    /**
+     * A NetLink sends and receives UDP packets through a non-blocking DatagramChannel, and counts the bytes
+     * so the bandwidth can be reported. Loss and latency can be added to the outgoing packets with
+     * -Dpong.net.loss=<fraction> and -Dpong.net.latency=<ms>, so bad networks can be tried on localhost.
+     * @param bindAddress The local address to bind to, or null for any free port.
+     * @throws IOException If the channel can't be opened.
+     */
+    public NetLink(InetSocketAddress bindAddress) throws IOException
+    {
+        channel = DatagramChannel.open();
+        channel.configureBlocking(false);
+        channel.bind(bindAddress);
+
+        PongConfig config = PongConfig.get();
+        lossRate = config.getDouble("pong.net.loss", 0.0);
+        latency = config.getLong("pong.net.latency", 0L) * 1000000L;
+        lossRandom = new Random(config.getLong("pong.net.seed", 1L));
+
+        delayedPackets = new byte[MAX_DELAYED][MAX_PACKET];
+        delayedLengths = new int[MAX_DELAYED];
+        delayedTimes = new long[MAX_DELAYED];
+        delayedTargets = new SocketAddress[MAX_DELAYED];
+        windowStartTime = System.nanoTime();
+    }
+
+    /**
+     * Send a packet, unless it is dropped to simulate loss. The packet is sent from its position to its limit.
+     * With latency added, a packet that finds every delay slot full is dropped and counted as lost, since
+     * sending it straight away would let it overtake the packets held back before it.
+     * @param packet The packet.
+     * @param target The address to send it to.
+     * @throws IOException If the packet can't be sent.
+     */
+    public void send(ByteBuffer packet, SocketAddress target) throws IOException
+    {
+        if ((lossRate > 0.0) && (lossRandom.nextDouble() < lossRate))
+        {
+            packetsDropped++;
+            return;
+        }
+
+        if (latency > 0L)
+        {
+            if (delayedCount == MAX_DELAYED)
+            {
+                packetsDropped++;
+                return;
+            }
+            //Copy the packet into the next free slot and send it once it is due
+            int slot = (delayedHead + delayedCount) % MAX_DELAYED;
+            delayedLengths[slot] = packet.remaining();
+            packet.get(delayedPackets[slot], 0, delayedLengths[slot]);
+            delayedTimes[slot] = System.nanoTime() + latency;
+            delayedTargets[slot] = target;
+            delayedCount++;
+            return;
+        }
+        sendNow(packet, target);
+    }
+
+    /**
+     * Send the held back packets that are due, this is called every tick.
+     * @throws IOException If a packet can't be sent.
+     */
+    public void flush() throws IOException
+    {
+        long now = System.nanoTime();
+        while ((delayedCount > 0) && (delayedTimes[delayedHead] - now <= 0))
+        {
+            sendNow(ByteBuffer.wrap(delayedPackets[delayedHead], 0, delayedLengths[delayedHead]), delayedTargets[delayedHead]);
+            delayedTargets[delayedHead] = null;
+            delayedHead = (delayedHead + 1) % MAX_DELAYED;
+            delayedCount--;
+        }
+    }
+
+    /**
+     * Send a packet straight away.
+     * @param packet The packet.
+     * @param target The address to send it to.
+     * @throws IOException If the packet can't be sent.
+     */
+    private void sendNow(ByteBuffer packet, SocketAddress target) throws IOException
+    {
+        int length = packet.remaining();
+        if (channel.send(packet, target) > 0)
+        {
+            bytesSent = bytesSent + length;
+            packetsSent++;
+        }
+    }
+
+    /**
+     * Receive the next waiting packet, if there is one. The packet is left between position 0 and the limit.
+     * @param packet The buffer to receive into, which must hold MAX_PACKET bytes.
+     * @return The address the packet came from, or null if no packet was waiting.
+     * @throws IOException If the packet can't be received.
+     */
+    public SocketAddress receive(ByteBuffer packet) throws IOException
+    {
+        packet.clear();
+        SocketAddress source = channel.receive(packet);
+        if (source != null)
+        {
+            packet.flip();
+            bytesReceived = bytesReceived + packet.remaining();
+            packetsReceived++;
+        }
+        return source;
+    }
+
+    /**
+     * Work out the bandwidth once a second.
+     * @param now The current time (in nanos).
+     * @return True if a new second started, so the bandwidth changed.
+     */
+    public boolean updateBandwidth(long now)
+    {
+        long windowTime = now - windowStartTime;
+        if (windowTime < 1000000000L)
+        {
+            return false;
+        }
+        sentPerSecond = (bytesSent - windowBytesSent) * 1000000000.0/windowTime;
+        receivedPerSecond = (bytesReceived - windowBytesReceived) * 1000000000.0/windowTime;
+        windowBytesSent = bytesSent;
+        windowBytesReceived = bytesReceived;
+        windowStartTime = now;
+        return true;
+    }
+
+    /**
+     * Get the bytes sent per second over the last full second.
+     * @return The outgoing bandwidth (in bytes per second).
+     */
+    public double getSentPerSecond()
+    {
+        return sentPerSecond;
+    }
+
+    /**
+     * Get the bytes received per second over the last full second.
+     * @return The incoming bandwidth (in bytes per second).
+     */
+    public double getReceivedPerSecond()
+    {
+        return receivedPerSecond;
+    }
+
+    /**
+     * Get a summary of everything sent and received.
+     * @return The totals.
+     */
+    public String getTotals()
+    {
+        return "sent " + packetsSent + " packets (" + bytesSent + " bytes), received " + packetsReceived + " packets ("
+                + bytesReceived + " bytes), dropped " + packetsDropped + " packets";
+    }
+
+    /**
+     * Get the number of packets sent since the link was opened.
+     * @return The number of packets.
+     */
+    public long getPacketsSent()
+    {
+        return packetsSent;
+    }
+
+    /**
+     * Determine whether the channel is still open, it is closed by close() or by interrupting a thread using it.
+     * @return True if packets can still be sent and received.
+     */
+    public boolean isOpen()
+    {
+        return channel.isOpen();
+    }
+
+    /**
+     * Close the channel.
+     */
+    public void close()
+    {
+        try
+        {
+            channel.close();
+        }
+        catch (IOException e)
+        {
+            //Do nothing
+        }
+    }
+}
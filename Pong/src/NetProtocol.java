@@ -0,0 +1,138 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Date: 10/17/2026
+ */
+public class NetProtocol
+{
+    /** The type of a packet of inputs from a client to the server */
+    public static final byte INPUT = 1;
+    /** The type of a packet with a snapshot of the game from the server to a client */
+    public static final byte SNAPSHOT = 2;
+
+    /** The input bit set when the player's up key is held */
+    public static final int UP = 1;
+    /** The input bit set when the player's down key is held */
+    public static final int DOWN = 1 << 1;
+
+    /** The max number of inputs sent in one packet, the unacknowledged inputs are sent again until the server has them */
+    public static final int MAX_INPUTS_PER_PACKET = 16;
+    /** The number of inputs and snapshots the client and server remember, this must be a power of two */
+    public static final int HISTORY = 64;
+
+    /**
+     * The network protocol is two packet types sent over UDP, both big-endian:
+     * <pre>
+     * INPUT    type, newest input seq (int), send time (long), newest snapshot seq received (int),
+     *          input count (byte), inputs (bytes, newest first)
+     * SNAPSHOT type, side (byte), snapshot seq (int), baseline seq (int, -1 for none), newest input seq applied (int),
+     *          echoed send time (long), time the echoed input was held (int, micros), state delta
+     * </pre>
+     * The state delta is a mask of the PongSimulation state values that changed since the baseline, followed by the
+     * change of each of them as a zig-zag varint. The baseline is the newest snapshot the client has acknowledged, so
+     * a typical snapshot is a handful of bytes. This class only holds the constants and helpers, it can't be created.
+     */
+    private NetProtocol()
+    {
+    }
+
+    /**
+     * Write the changes from a baseline state to a state.
+     * @param packet The packet to write to.
+     * @param state The state.
+     * @param baseline The baseline state, all zeros if the client has no baseline.
+     */
+    public static void writeDelta(ByteBuffer packet, int[] state, int[] baseline)
+    {
+        int mask = 0;
+        for (int i = 0; i < PongSimulation.STATE_SIZE; i++)
+        {
+            if (state[i] != baseline[i])
+            {
+                mask = mask | (1 << i);
+            }
+        }
+        packet.putShort((short) mask);
+        for (int i = 0; i < PongSimulation.STATE_SIZE; i++)
+        {
+            if ((mask & (1 << i)) != 0)
+            {
+                writeVarInt(packet, zigZag(state[i] - baseline[i]));
+            }
+        }
+    }
+
+    /**
+     * Read a state written by writeDelta().
+     * @param packet The packet to read from.
+     * @param baseline The baseline state the delta was written against.
+     * @param state The array to read the state into.
+     */
+    public static void readDelta(ByteBuffer packet, int[] baseline, int[] state)
+    {
+        int mask = packet.getShort() & 0xFFFF;
+        for (int i = 0; i < PongSimulation.STATE_SIZE; i++)
+        {
+            state[i] = baseline[i];
+            if ((mask & (1 << i)) != 0)
+            {
+                state[i] = state[i] + unZigZag(readVarInt(packet));
+            }
+        }
+    }
+
+    /**
+     * Map a signed int to an unsigned one so that small negative values stay small: 0, -1, 1, -2, ... become 0, 1, 2, 3, ...
+     * @param value The signed value.
+     * @return The zig-zag encoded value.
+     */
+    private static int zigZag(int value)
+    {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Undo zigZag().
+     * @param value The zig-zag encoded value.
+     * @return The signed value.
+     */
+    private static int unZigZag(int value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Write an unsigned int using 7 bits per byte, so small values take a single byte.
+     * @param packet The packet to write to.
+     * @param value The value to write.
+     */
+    private static void writeVarInt(ByteBuffer packet, int value)
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            packet.put((byte) ((value & 0x7F) | 0x80));
+            value = value >>> 7;
+        }
+        packet.put((byte) value);
+    }
+
+    /**
+     * Read an int written by writeVarInt().
+     * @param packet The packet to read from.
+     * @return The value.
+     */
+    private static int readVarInt(ByteBuffer packet)
+    {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do
+        {
+            b = packet.get() & 0xFF;
+            value = value | ((b & 0x7F) << shift);
+            shift = shift + 7;
+        }
+        while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -1,5 +1,3 @@
-import java.awt.*;
-
 /**
  * @author Logan Karstetter
  * Date: 01/26/2018
@@ -7,41 +5,26 @@ import java.awt.*;
 public class Paddle
 {
     /** The width of the paddle */
-    private int pWidth = 25;
+    private final int pWidth = PongConfig.get().paddleWidth;
     /** The height of the paddle */
-    private int pHeight = 100;
+    private final int pHeight = PongConfig.get().paddleHeight;
 
     /** The x-coordinate of the paddle within the PongPanel */
     private int xPos;
     /** The y-coordinate of the paddle within the PongPanel */
     private int yPos;
+    /** The y-coordinate of the paddle before the last update */
+    private int prevYPos;
 
     /** The number of pixels the paddle will move (up or down) per key press */
-    private int yStep = 15;
-
-    /** The color of the paddle */
-    private Color pColor = Color.WHITE;
-
-    /** A reference to the PongPanel */
-    private PongPanel pPanel;
-    /** A reference to the KeyManager */
-    private KeyManager keyManager;
-    /** Determines whether this is the left or right paddle */
-    private boolean isLeftSide;
+    private final int yStep = PongConfig.get().paddleStep;
 
     /**
      * Creates a paddle to be used in a game of Pong.
-     * @param pPanel The PongPanel this paddle resides within.
-     * @param keyManager The KeyManager that feeds key input to this paddle.
      * @param isLeftSide Determines whether the paddle is the left or right paddle.
      */
-    public Paddle(PongPanel pPanel, KeyManager keyManager, boolean isLeftSide)
+    public Paddle(boolean isLeftSide)
     {
-        //Store the PongPanel and KeyManager
-        this.pPanel = pPanel;
-        this.keyManager = keyManager;
-        this.isLeftSide = isLeftSide;
-
         //Set the x-coordinate according to the side the paddle is on
         if (isLeftSide)
         {
@@ -49,10 +32,20 @@ public class Paddle
         }
         else
         {
-            xPos = PongPanel.PWIDTH - pWidth;
+            xPos = PongSimulation.PWIDTH - pWidth;
         }
         //Set the y-coordinate to the middle of the PongPanel
-        yPos = PongPanel.PHEIGHT/2 - pHeight/2;
+        yPos = PongSimulation.PHEIGHT/2 - pHeight/2;
+        prevYPos = yPos;
+    }
+
+    /**
+     * Move the paddle back to the middle of the PongPanel, as it is at the start of a game.
+     */
+    void reset()
+    {
+        yPos = PongSimulation.PHEIGHT/2 - pHeight/2;
+        prevYPos = yPos;
     }
 
     /**
@@ -77,57 +70,96 @@ public class Paddle
     private void moveDown()
     {
         //Make sure the paddle doesn't move off the bottom of the screen
-        if (!(yPos + yStep + pHeight > PongPanel.PHEIGHT))
+        if (!(yPos + yStep + pHeight > PongSimulation.PHEIGHT))
         {
             yPos = yPos + yStep;
         }
     }
 
     /**
-     * Update the position of the paddle using the KeyManager.
+     * Update the position of the paddle using the inputs held this tick.
+     * @param up Determines whether the paddle's up key is held.
+     * @param down Determines whether the paddle's down key is held.
      */
-    public void update()
+    public void update(boolean up, boolean down)
     {
+        //Remember where the paddle was so rendering can interpolate between updates
+        prevYPos = yPos;
+
         //Determine which direction to move, if not both
-        //Move the left keys
-        if (isLeftSide && keyManager.leftUp)
+        if (up)
         {
             moveUp();
         }
-
-        if (isLeftSide && keyManager.leftDown)
+        if (down)
         {
             moveDown();
         }
+    }
 
-        //Move the right keys
-        if (!isLeftSide && keyManager.rightUp)
-        {
-            moveUp();
-        }
-        if (!isLeftSide && keyManager.rightDown)
-        {
-            moveDown();
-        }
+    /**
+     * Move the paddle straight to a position, this is used to show a position received over the network.
+     * @param yPos The new y-coordinate of the paddle.
+     * @param prevYPos The y-coordinate to interpolate from.
+     */
+    void setYPos(int yPos, int prevYPos)
+    {
+        this.yPos = yPos;
+        this.prevYPos = prevYPos;
+    }
+
+    /**
+     * Get the y-coordinate the paddle is drawn at, interpolated between its previous and current position.
+     * @param interpolation How far the time is between the last update and the next (0.0 to 1.0).
+     * @return The y-coordinate to draw the paddle at.
+     */
+    public int getDrawY(double interpolation)
+    {
+        return (int) Math.round(prevYPos + (yPos - prevYPos) * interpolation);
+    }
+
+    /**
+     * Get the x-coordinate of the paddle.
+     * @return The x-coordinate of the paddle.
+     */
+    public int getXPos()
+    {
+        return xPos;
+    }
+
+    /**
+     * Get the y-coordinate of the paddle.
+     * @return The y-coordinate of the paddle.
+     */
+    public int getYPos()
+    {
+        return yPos;
+    }
+
+    /**
+     * Get the width of the paddle.
+     * @return The width of the paddle.
+     */
+    public int getWidth()
+    {
+        return pWidth;
     }
 
     /**
-     * Draw the paddle on the screen.
-     * @param dbGraphics The dbGraphics object from the PongPanel.
+     * Get the height of the paddle.
+     * @return The height of the paddle.
      */
-    public void draw(Graphics dbGraphics)
+    public int getHeight()
     {
-        //Draw the paddle
-        dbGraphics.setColor(pColor);
-        dbGraphics.fill3DRect(xPos, yPos, pWidth, pHeight, true);
+        return pHeight;
     }
 
     /**
-     * Get a rectangle representing the paddle's position and dimensions.
-     * @return A rectangle representing the paddle.
+     * Get the distance the paddle moves in one update.
+     * @return The paddle's yStep.
      */
-    public Rectangle getRectangle()
+    public int getYStep()
     {
-        return new Rectangle(xPos, yPos, pWidth, pHeight);
+        return yStep;
     }
 }
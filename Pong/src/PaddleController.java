@@ -0,0 +1,18 @@
+/**
+ * Date: 10/17/2026
+ */
+public interface PaddleController
+{
+    /** The bit set to move the paddle up */
+    int UP = 1;
+    /** The bit set to move the paddle down */
+    int DOWN = 1 << 1;
+
+    /**
+     * Decide which way to move a paddle this tick. This is called once per tick before the simulation is updated.
+     * @param sim The simulation the paddle is in.
+     * @param leftSide Determines whether the controller is moving the left or right paddle.
+     * @return A bitmask of UP and DOWN.
+     */
+    int decide(PongSimulation sim, boolean leftSide);
+}
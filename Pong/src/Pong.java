@@ -8,7 +8,7 @@ import java.awt.event.WindowListener;
  */
 public class Pong extends JFrame implements WindowListener
 {
-    /** The desired FPS/UPS for Pong */
+    /** The desired FPS for Pong */
     private static int DEFAULT_FPS = 20;
 
     /** The PongPanel used to play Pong */
@@ -26,6 +26,9 @@ public class Pong extends JFrame implements WindowListener
         pPanel = new PongPanel(FPS);
         getContentPane().add(pPanel);
 
+        //Close the window once the game stops, the JVM exits with the last window rather than with System.exit
+        pPanel.setStopListener(() -> SwingUtilities.invokeLater(this::dispose));
+
         //Add a window listener to handle pausing
         addWindowListener(this);
         setResizable(false);
@@ -71,7 +74,7 @@ public class Pong extends JFrame implements WindowListener
     }
 
     /**
-     * Stops the game when the window is closed.
+     * Stops the game when the window is closed, the window closes once it has.
      * @param e A WindowEvent
      */
     public void windowClosing(WindowEvent e)
@@ -99,11 +102,21 @@ public class Pong extends JFrame implements WindowListener
 
     /**
      * Launches a game of Pong. A single integer value can be specified as a command line argument to
-     * set the FPS for the game. If no value is provided it will run at the default FPS (20).
+     * set the FPS for the game. If no value is provided it will run at the default FPS (20). The FPS
+     * only changes how smoothly the game is drawn, it is always updated at PongSimulation.UPS.
      * @param args An integer specifying the requested FPS.
      */
     public static void main(String[] args)
     {
+        try
+        {
+            args = PongConfig.init(args);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
 
         //Check for command line arguments
         if (args.length > 0)
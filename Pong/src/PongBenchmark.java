@@ -0,0 +1,825 @@
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+
+/**
+ * Date: 10/17/2026
+ */
+public class PongBenchmark
+{
+    /** The number of iterations run before measuring, so the JIT has compiled the hot paths */
+    private static final int WARMUP_ITERATIONS = 5;
+    /** The number of measured iterations */
+    private static final int MEASURED_ITERATIONS = 5;
+    /** The length of each iteration (in nanos) */
+    private static final long ITERATION_TIME = 1000000000L;
+    /** The number of operations run between checks of the clock */
+    private static final int BATCH_SIZE = 1000;
+    /** The numbers of balls the multi-ball field is benchmarked with */
+    private static final int[] FIELD_SIZES = {1000, 2500, 5000, 10000, 20000};
+    /** The numbers of threads the largest fields are benchmarked with */
+    private static final int[] FIELD_THREADS = {1, 2, 4, 8};
+
+    /** The number of events appended to the telemetry log before it is started again, so the file stays small */
+    private static final int TELEMETRY_EVENTS = 1 << 20;
+
+    /** The number of games started and stopped by the lifecycle soak, after as many to warm up */
+    private static final int LIFECYCLE_GAMES = 500;
+    /** How long each game of the lifecycle soak plays for (in millis) */
+    private static final long LIFECYCLE_PLAY_TIME = 2L;
+    /** The most the heap in use may grow over the lifecycle soak (in bytes) before it counts as a leak */
+    private static final long LIFECYCLE_HEAP_LIMIT = 1L << 20;
+    /** The number of seeds a reset simulation is checked against a new one with */
+    private static final int RESET_SEEDS = 50;
+    /** The number of times the restart check starts and stops its games */
+    private static final int RESTART_COUNT = 50;
+    /** How long the games play for on each start of the restart check (in millis) */
+    private static final long RESTART_PLAY_TIME = 100L;
+
+    /** The frame rate the game is played at while measuring pauses */
+    private static final int PAUSE_FPS = 60;
+    /** The number of times the game is paused and resumed */
+    private static final int PAUSE_COUNT = 10;
+    /** How long the game is played and paused for each time (in millis) */
+    private static final long PAUSE_TIME = 200L;
+
+    /** The frame rate the wait strategies are paced at */
+    private static final int WAIT_FPS = 120;
+    /** The number of frames each wait strategy is measured over */
+    private static final int WAIT_FRAMES = 2 * WAIT_FPS;
+
+    /** The thread bean used to measure the bytes allocated by the benchmarks */
+    private static com.sun.management.ThreadMXBean threadBean;
+
+    /** The objects being benchmarked */
+    private static Ball ball;
+    private static Paddle paddle;
+    private static PongSimulation sim;
+    private static KeyManager keyManager;
+    private static PaddleController aiController;
+    private static PongPanel fullPanel;
+    private static PongPanel dirtyPanel;
+    /** A panel that redraws every frame in full with shapes rather than sprites */
+    private static PongPanel shapesPanel;
+    /** The sprites, and the graphics of the image the game elements are drawn into on their own */
+    private static SpriteCache sprites;
+    private static Graphics elementGraphics;
+
+    /** The telemetry log being appended to, and the temporary file it is written to */
+    private static TelemetryLog telemetry;
+    private static File telemetryFile;
+
+    /** The key events fed to the KeyManager */
+    private static KeyEvent pressEvent;
+    private static KeyEvent releaseEvent;
+
+    /** Counts the operations so the benchmarks can alternate their inputs */
+    private static int counter;
+    /** Determines if a check failed, the benchmark then exits with 1 */
+    private static boolean failed;
+
+    /**
+     * Benchmark the update and render hot paths of the game without a display. Each benchmark is
+     * warmed up and then measured over several fixed-length iterations, reporting the throughput
+     * and the allocation rate (from the thread's allocated bytes) along with the garbage collections
+     * that happened while measuring, so regressions in the tick and frame paths show up in numbers.
+     * @param args An optional filter, only benchmarks whose names contain it are run.
+     */
+    public static void main(String[] args)
+    {
+        try
+        {
+            args = PongConfig.init(args);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
+        //Render into images only, this must be set before AWT starts
+        System.setProperty("java.awt.headless", "true");
+        String filter = (args.length > 0) ? args[0] : "";
+        threadBean = HeadlessPong.getAllocationBean();
+
+        setUp();
+        System.out.println(String.format("%-28s %14s %12s %10s %10s %12s %6s %8s",
+                "Benchmark", "ops/s", "error", "ns/op", "B/op", "alloc MB/s", "GCs", "GC ms"));
+
+        benchmark("Ball.update", filter, () -> ball.update());
+        benchmark("Paddle.update", filter, () -> paddle.update((++counter & 8) == 0, (counter & 8) != 0));
+        benchmark("PongSimulation.update", filter, PongBenchmark::simulationUpdate);
+        benchmark("KeyManager.update", filter, PongBenchmark::keyManagerUpdate);
+        benchmark("AIController.decide", filter, PongBenchmark::aiDecide);
+        benchmark("TelemetryLog.append", filter, PongBenchmark::telemetryAppend);
+        benchmark("Draw elements shapes", filter, PongBenchmark::drawShapes);
+        benchmark("Draw elements sprites", filter, PongBenchmark::drawSprites);
+        benchmark("PongPanel.gameRender shapes", filter, () -> shapesPanel.renderFrame((++counter & 1) * 0.5));
+        benchmark("PongPanel.gameRender full", filter, () -> fullPanel.renderFrame((++counter & 1) * 0.5));
+        benchmark("PongPanel.gameRender dirty", filter, () -> dirtyPanel.renderFrame((++counter & 1) * 0.5));
+
+        closeTelemetry();
+
+        //The multi-ball field should scale linearly with the number of balls, 1000000000/ns/op is its max UPS
+        for (int size : FIELD_SIZES)
+        {
+            BallField field = new BallField(size, size, paddle, new Paddle(false));
+            benchmark("BallField.update " + size, filter, field::update);
+        }
+        //Splitting the field across threads should scale with the cores available, up to the memory bandwidth
+        for (int size : new int[] {10000, 20000})
+        {
+            for (int threads : FIELD_THREADS)
+            {
+                BallField field = new BallField(size, size, paddle, new Paddle(false));
+                field.setThreads(threads);
+                benchmark("BallField.update " + size + " x" + threads, filter, field::update);
+                field.setThreads(1);
+            }
+        }
+
+        //The wait strategies are measured by how late they wake up rather than by throughput
+        System.out.println();
+        System.out.println(String.format("%-28s %12s %12s %12s %8s", "Wait strategy", "p50 late us", "p99 late us", "max late us", "CPU %"));
+        for (WaitStrategy strategy : WaitStrategy.values())
+        {
+            benchmarkWait(strategy, filter);
+        }
+
+        //Restarting the game loop should take milliseconds at most and leave no threads or memory behind
+        benchmarkLifecycle(filter);
+        //A paused game should use next to no CPU and resume within a frame
+        benchmarkPause(filter);
+        //A ball that bounces off a wall on its way to a paddle should log the bounce before the hit
+        checkPaddleBounce(filter);
+
+        if (failed)
+        {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Create the objects being benchmarked.
+     */
+    private static void setUp()
+    {
+        //The ball keeps scoring and resetting, which is part of its normal update
+        ball = new PongSimulation(1L).getBall();
+        paddle = new Paddle(true);
+        sim = new PongSimulation(2L);
+        aiController = new AIController(AIController.Difficulty.HARD);
+
+        //The panels render into images instead of the screen
+        fullPanel = createPanel(true);
+        dirtyPanel = createPanel(false);
+        shapesPanel = createPanel(true);
+        shapesPanel.setSprites(false);
+        sprites = new SpriteCache(fullPanel);
+        elementGraphics = new BufferedImage(PongPanel.PWIDTH, PongPanel.PHEIGHT, BufferedImage.TYPE_INT_RGB).createGraphics();
+
+        keyManager = new KeyManager(fullPanel);
+        pressEvent = new KeyEvent(fullPanel, KeyEvent.KEY_PRESSED, 0L, 0, KeyEvent.VK_A, 'a');
+        releaseEvent = new KeyEvent(fullPanel, KeyEvent.KEY_RELEASED, 0L, 0, KeyEvent.VK_A, 'a');
+    }
+
+    /**
+     * Create a panel that renders into an off-screen image, with the ball moving between its
+     * previous and current position so rendering at different interpolations draws something new.
+     * @param alwaysRedraw Determines if every frame is drawn in full rather than only the parts that changed.
+     * @return The panel.
+     */
+    private static PongPanel createPanel(boolean alwaysRedraw)
+    {
+        PongPanel panel = new PongPanel(60);
+        BufferedImage image = new BufferedImage(PongPanel.PWIDTH, PongPanel.PHEIGHT, BufferedImage.TYPE_INT_RGB);
+        panel.setBackend(new ImageBackend(image, alwaysRedraw));
+        panel.getSimulation().update(0);
+        return panel;
+    }
+
+    /**
+     * Update the simulation with inputs that change every 8 ticks, starting a new game once it is over
+     * so the benchmark measures real ticks rather than a finished game.
+     */
+    private static void simulationUpdate()
+    {
+        if (sim.isGameOver())
+        {
+            sim = new PongSimulation(counter);
+        }
+        sim.update(++counter >> 3 & 0xF);
+    }
+
+    /**
+     * Append an event to the telemetry log as the simulation does, starting the log again every
+     * TELEMETRY_EVENTS events, so the cost includes mapping new regions and creating the file.
+     */
+    private static void telemetryAppend()
+    {
+        try
+        {
+            if ((telemetry == null) || (telemetry.getEventCount() == TELEMETRY_EVENTS))
+            {
+                closeTelemetry();
+                telemetryFile = File.createTempFile("pong", ".telemetry");
+                telemetryFile.deleteOnExit();
+                telemetry = new TelemetryLog(telemetryFile.getPath());
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        int c = ++counter;
+        telemetry.append(c, TelemetryLog.PADDLE_HIT, c & 1, c & 511, c & 255, 10, -10, c & 31);
+    }
+
+    /**
+     * Close the telemetry log if one was opened, and delete its file.
+     */
+    private static void closeTelemetry()
+    {
+        if (telemetry != null)
+        {
+            try
+            {
+                telemetry.close();
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            telemetry = null;
+            telemetryFile.delete();
+            telemetryFile = null;
+        }
+    }
+
+    /**
+     * Draw the center line, paddles, and ball as shapes, as PongPanel does with -Dpong.sprites=false.
+     */
+    private static void drawShapes()
+    {
+        double interpolation = (++counter & 1) * 0.5;
+        SpriteCache.fillCenterLine(elementGraphics);
+        SpriteCache.fillPaddle(elementGraphics, sim.getLeftPaddle(), interpolation);
+        SpriteCache.fillPaddle(elementGraphics, sim.getRightPaddle(), interpolation);
+        SpriteCache.fillBall(elementGraphics, sim.getBall(), interpolation);
+    }
+
+    /**
+     * Draw the center line, paddles, and ball by copying their sprites.
+     */
+    private static void drawSprites()
+    {
+        double interpolation = (++counter & 1) * 0.5;
+        sprites.drawCenterLine(elementGraphics);
+        sprites.drawPaddle(elementGraphics, sim.getLeftPaddle(), interpolation);
+        sprites.drawPaddle(elementGraphics, sim.getRightPaddle(), interpolation);
+        sprites.drawBall(elementGraphics, sim.getBall(), interpolation);
+    }
+
+    /**
+     * Decide the moves of both paddles of the simulation, which the simulationUpdate() benchmark keeps playing.
+     */
+    private static void aiDecide()
+    {
+        counter = counter + aiController.decide(sim, true) + aiController.decide(sim, false);
+        if ((++counter & 15) == 0)
+        {
+            simulationUpdate();
+        }
+    }
+
+    /**
+     * Queue a key press or release and read it with KeyManager.update(), as happens every tick.
+     */
+    private static void keyManagerUpdate()
+    {
+        if ((++counter & 1) == 0)
+        {
+            keyManager.keyPressed(pressEvent);
+        }
+        else
+        {
+            keyManager.keyReleased(releaseEvent);
+        }
+        keyManager.update();
+    }
+
+    /**
+     * Run one benchmark and print its results.
+     * @param name The name of the benchmark.
+     * @param filter Only benchmarks whose names contain the filter are run.
+     * @param operation The operation to benchmark.
+     */
+    static void benchmark(String name, String filter, Runnable operation)
+    {
+        if (!name.contains(filter))
+        {
+            return;
+        }
+
+        //Let the JIT compile the operation
+        for (int i = 0; i < WARMUP_ITERATIONS; i++)
+        {
+            runIteration(operation);
+        }
+
+        //Measure the operation, along with the memory and garbage collections it causes
+        long threadId = Thread.currentThread().getId();
+        long beforeBytes = (threadBean != null) ? threadBean.getThreadAllocatedBytes(threadId) : 0L;
+        long beforeGcCount = getGcCount();
+        long beforeGcTime = getGcTime();
+        long beforeTime = System.nanoTime();
+
+        double[] opsPerSecond = new double[MEASURED_ITERATIONS];
+        long totalOps = 0L;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++)
+        {
+            long iterationStart = System.nanoTime();
+            long ops = runIteration(operation);
+            opsPerSecond[i] = ops/((System.nanoTime() - iterationStart)/1000000000.0);
+            totalOps = totalOps + ops;
+        }
+
+        double seconds = (System.nanoTime() - beforeTime)/1000000000.0;
+        long allocatedBytes = (threadBean != null) ? threadBean.getThreadAllocatedBytes(threadId) - beforeBytes : -1L;
+
+        //Work out the mean and the spread of the iterations
+        double mean = 0.0;
+        for (double ops : opsPerSecond)
+        {
+            mean = mean + ops/MEASURED_ITERATIONS;
+        }
+        double variance = 0.0;
+        for (double ops : opsPerSecond)
+        {
+            variance = variance + (ops - mean) * (ops - mean)/(MEASURED_ITERATIONS - 1);
+        }
+
+        System.out.println(String.format("%-28s %14.0f %12.0f %10.1f %10.2f %12.2f %6d %8d",
+                name, mean, Math.sqrt(variance), 1000000000.0/mean, (double) allocatedBytes/totalOps,
+                allocatedBytes/seconds/(1024.0 * 1024.0), getGcCount() - beforeGcCount, getGcTime() - beforeGcTime));
+    }
+
+    /**
+     * Pace frames at WAIT_FPS with a wait strategy and print how late it woke up for each frame, along
+     * with the fraction of a core the thread used while waiting.
+     * @param strategy The wait strategy to measure.
+     * @param filter Only strategies whose benchmark names contain the filter are measured.
+     */
+    private static void benchmarkWait(WaitStrategy strategy, String filter)
+    {
+        String name = "WaitStrategy." + strategy.name();
+        if (!name.contains(filter))
+        {
+            return;
+        }
+
+        LatencyHistogram lateness = new LatencyHistogram();
+        ThreadMXBean cpuBean = ManagementFactory.getThreadMXBean();
+        long beforeCpuTime = cpuBean.getCurrentThreadCpuTime();
+        long startTime = System.nanoTime();
+        for (int frame = 1; frame <= WAIT_FRAMES; frame++)
+        {
+            //Each deadline is absolute, just like the game loop's, so lateness isn't carried over
+            long deadline = startTime + (frame * 1000000000L)/WAIT_FPS;
+            strategy.waitUntil(deadline);
+            lateness.record(Math.max(0L, System.nanoTime() - deadline));
+        }
+        double cpuLoad = (cpuBean.getCurrentThreadCpuTime() - beforeCpuTime)/(double) (System.nanoTime() - startTime);
+
+        System.out.println(String.format("%-28s %12.1f %12.1f %12.1f %8.1f", name, lateness.getValueAtPercentile(50.0)/1000.0,
+                lateness.getValueAtPercentile(99.0)/1000.0, lateness.getMax()/1000.0, cpuLoad * 100.0));
+    }
+
+    /**
+     * Start, play, and stop LIFECYCLE_GAMES games in one panel, each one a new game, and print how long
+     * starting and stopping the game loop took along with the threads, JMX beans, and heap in use before
+     * and after. The soak fails unless the threads and beans are the same after as before and the heap grew
+     * by less than LIFECYCLE_HEAP_LIMIT, and unless a reset simulation plays out the same as a new one.
+     * @param filter The soak only runs if its name contains the filter.
+     */
+    private static void benchmarkLifecycle(String filter)
+    {
+        String name = "PongPanel.lifecycle";
+        if (!name.contains(filter))
+        {
+            return;
+        }
+        PongPanel panel = createPanel(false);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        javax.management.MBeanServer beanServer = ManagementFactory.getPlatformMBeanServer();
+
+        //Warm up, then measure from where everything has settled
+        runLifecycle(panel, null, null);
+        int beforeThreads = threads.getThreadCount();
+        int beforeBeans = beanServer.getMBeanCount();
+        long beforeHeap = getUsedHeap();
+
+        LatencyHistogram startTimes = new LatencyHistogram();
+        LatencyHistogram stopTimes = new LatencyHistogram();
+        runLifecycle(panel, startTimes, stopTimes);
+
+        System.out.println();
+        System.out.println(String.format("%-28s %8s %12s %12s %12s %12s %10s %10s %12s", "Lifecycle", "games", "start us",
+                "start max us", "stop us", "stop max us", "threads", "beans", "heap KB"));
+        System.out.println(String.format("%-28s %8d %12.1f %12.1f %12.1f %12.1f %4d -> %-3d %4d -> %-3d %+12d", name,
+                startTimes.getCount(), startTimes.getMean()/1000.0, startTimes.getMax()/1000.0, stopTimes.getMean()/1000.0,
+                stopTimes.getMax()/1000.0, beforeThreads, threads.getThreadCount(), beforeBeans, beanServer.getMBeanCount(),
+                (getUsedHeap() - beforeHeap)/1024L));
+
+        //Check nothing leaked
+        int afterThreads = threads.getThreadCount();
+        int afterBeans = beanServer.getMBeanCount();
+        long heapGrowth = getUsedHeap() - beforeHeap;
+        if (afterThreads != beforeThreads)
+        {
+            fail(name + " leaked threads: " + beforeThreads + " before, " + afterThreads + " after");
+        }
+        if (afterBeans != beforeBeans)
+        {
+            fail(name + " leaked JMX beans: " + beforeBeans + " before, " + afterBeans + " after");
+        }
+        if (heapGrowth >= LIFECYCLE_HEAP_LIMIT)
+        {
+            fail(name + " leaked memory: the heap grew by " + heapGrowth/1024L + " KB");
+        }
+        checkReset(0);
+        checkReset(300);
+        checkRestart();
+    }
+
+    /**
+     * Check that a game can be started, stopped, and started again RESTART_COUNT times without breaking the
+     * channels the animator uses. One panel sends its inputs over a NetLink to a socket standing in for the
+     * server, the other logs its events to a TelemetryLog. Both must still be open and in use after the last start.
+     */
+    private static void checkRestart()
+    {
+        String name = "PongPanel.restart";
+        File file = null;
+        try (DatagramChannel server = DatagramChannel.open())
+        {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            PongPanel netPanel = createPanel(false);
+            netPanel.connect("localhost:" + ((InetSocketAddress) server.getLocalAddress()).getPort());
+            NetLink link = netPanel.getNetClient().getLink();
+
+            file = File.createTempFile("pong", ".telemetry");
+            TelemetryLog log = new TelemetryLog(file.getPath());
+            PongPanel logPanel = createPanel(false);
+            logPanel.setTelemetry(log);
+
+            //Each start of the logged game is a new game, which logs a START event
+            long sentBefore = 0L;
+            long loggedBefore = 0L;
+            for (int run = 0; (run < RESTART_COUNT) && link.isOpen(); run++)
+            {
+                sentBefore = link.getPacketsSent();
+                loggedBefore = log.getEventCount();
+                logPanel.resetGame();
+                netPanel.startGame();
+                logPanel.startGame();
+                Thread.sleep(RESTART_PLAY_TIME);
+                netPanel.stopGame();
+                logPanel.stopGame();
+            }
+
+            if (!link.isOpen() || (link.getPacketsSent() <= sentBefore))
+            {
+                fail(name + " broke the NetLink: open " + link.isOpen() + ", " + (link.getPacketsSent() - sentBefore)
+                        + " packets sent on the last start");
+            }
+            else if (log.getEventCount() <= loggedBefore)
+            {
+                fail(name + " stopped the TelemetryLog: no events logged on the last start");
+            }
+            else
+            {
+                //Closing cuts the file to length through its channel, which fails if the channel was closed
+                log.close();
+                System.out.println(name + " keeps the NetLink and TelemetryLog working after a stop and start");
+            }
+            netPanel.getNetClient().close();
+        }
+        catch (IOException e)
+        {
+            fail(name + " couldn't use a channel after a restart: " + e);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            if (file != null)
+            {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Check that a simulation reset with a seed, after a game has been played in it, plays out the same as a
+     * new simulation with that seed, for RESET_SEEDS seeds given the same pseudo-random inputs.
+     * @param extraBalls The number of extra balls in the simulations.
+     */
+    private static void checkReset(int extraBalls)
+    {
+        PongSimulation reused = new PongSimulation(-1L, extraBalls);
+        int[] reusedState = new int[PongSimulation.STATE_SIZE];
+        int[] newState = new int[PongSimulation.STATE_SIZE];
+        int inputSeed = 0x2545F491;
+        for (int i = 0; i < 1000; i++)
+        {
+            inputSeed ^= inputSeed << 13;
+            inputSeed ^= inputSeed >>> 17;
+            inputSeed ^= inputSeed << 5;
+            reused.update(inputSeed & 0xF);
+        }
+
+        for (long seed = 0L; seed < RESET_SEEDS; seed++)
+        {
+            PongSimulation fresh = new PongSimulation(seed, extraBalls);
+            reused.reset(seed);
+            while (!fresh.isGameOver() || !reused.isGameOver())
+            {
+                inputSeed ^= inputSeed << 13;
+                inputSeed ^= inputSeed >>> 17;
+                inputSeed ^= inputSeed << 5;
+                fresh.update(inputSeed & 0xF);
+                reused.update(inputSeed & 0xF);
+                fresh.getState(newState);
+                reused.getState(reusedState);
+                boolean sameField = (extraBalls == 0) || ((fresh.getBallField().getLeftMisses() == reused.getBallField().getLeftMisses())
+                        && (fresh.getBallField().getRightMisses() == reused.getBallField().getRightMisses()));
+                if (!Arrays.equals(newState, reusedState) || (fresh.getCurrentRally() != reused.getCurrentRally()) || !sameField)
+                {
+                    fail("PongSimulation.reset(" + seed + ") with " + extraBalls + " extra balls differs from a new simulation at tick " + fresh.getTick());
+                    return;
+                }
+            }
+        }
+        System.out.println("PongSimulation.reset matches a new simulation for " + RESET_SEEDS + " seeds with " + extraBalls + " extra balls");
+    }
+
+    /**
+     * Check the telemetry of a steep ball that bounces off the bottom wall and then hits the right paddle in
+     * one update. The log must hold the bounce and then the hit, in the order they happened.
+     * @param filter The check only runs if its name contains the filter.
+     */
+    private static void checkPaddleBounce(String filter)
+    {
+        String name = "Ball.paddleBounce";
+        if (!name.contains(filter))
+        {
+            return;
+        }
+        File file = null;
+        try
+        {
+            file = File.createTempFile("pong", ".telemetry");
+            TelemetryLog log = new TelemetryLog(file.getPath());
+            PongSimulation steep = new PongSimulation(3L);
+            steep.setTelemetry(log);
+
+            //Put the ball 30 pixels from the right paddle and 5 above the bottom wall, moving down steeply enough to
+            //meet the wall first, with the paddle at the bottom of the field where the ball comes back up to it
+            Paddle right = steep.getRightPaddle();
+            int diameter = steep.getBall().getDiameter();
+            int[] state = new int[PongSimulation.STATE_SIZE];
+            steep.getState(state);
+            state[3] = right.getXPos() - diameter - 30;
+            state[4] = PongSimulation.PHEIGHT - diameter - 5;
+            state[5] = 40;
+            state[6] = 60;
+            state[8] = PongSimulation.PHEIGHT - right.getHeight();
+            steep.setState(state);
+            steep.update(0);
+            log.close();
+
+            //Read back the events after the 16 byte header and the START event
+            int[] events = new int[(int) log.getEventCount() - 1];
+            int[] values = new int[events.length];
+            try (RandomAccessFile in = new RandomAccessFile(file, "r"))
+            {
+                for (int i = 0; i < events.length; i++)
+                {
+                    in.seek(16 + (i + 1) * (long) TelemetryLog.EVENT_SIZE);
+                    in.readInt();
+                    events[i] = in.readByte();
+                    in.skipBytes(9);
+                    values[i] = in.readShort();
+                }
+            }
+            if ((events.length < 2) || (events[0] != TelemetryLog.WALL_BOUNCE) || (values[0] != 1) || (events[1] != TelemetryLog.PADDLE_HIT))
+            {
+                fail(name + " logged events " + Arrays.toString(events) + " with values " + Arrays.toString(values)
+                        + ", expected a bottom WALL_BOUNCE then a PADDLE_HIT");
+                return;
+            }
+            System.out.println(name + " logs the bottom wall bounce before the paddle hit");
+        }
+        catch (IOException e)
+        {
+            fail(name + " couldn't write the telemetry log: " + e);
+        }
+        finally
+        {
+            if (file != null)
+            {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Report a failed check, the benchmark exits with 1 once it is done.
+     * @param message What failed.
+     */
+    private static void fail(String message)
+    {
+        System.out.println("FAILED: " + message);
+        failed = true;
+    }
+
+    /**
+     * Play a game at PAUSE_FPS, pausing and resuming it PAUSE_COUNT times, and print the CPU the process
+     * used and the frames drawn while it was playing and while it was paused, along with how long the
+     * first frame after resuming took. This thread only sleeps, so the CPU used is the animator's.
+     * @param filter The benchmark only runs if its name contains the filter.
+     */
+    private static void benchmarkPause(String filter)
+    {
+        String name = "PongPanel.pause";
+        if (!name.contains(filter))
+        {
+            return;
+        }
+        ImageBackend pauseBackend = new ImageBackend(new BufferedImage(PongPanel.PWIDTH, PongPanel.PHEIGHT, BufferedImage.TYPE_INT_RGB), false);
+        PongPanel panel = new PongPanel(PAUSE_FPS);
+        panel.setBackend(pauseBackend);
+        com.sun.management.OperatingSystemMXBean osBean = (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+        long playingCpuTime = 0L;
+        long playingFrames = 0L;
+        long pausedCpuTime = 0L;
+        long pausedFrames = 0L;
+        LatencyHistogram resumeTimes = new LatencyHistogram();
+        panel.startGame();
+        try
+        {
+            for (int i = 0; i < PAUSE_COUNT; i++)
+            {
+                long beforeCpuTime = osBean.getProcessCpuTime();
+                long beforeFrames = pauseBackend.getFrameCount();
+                Thread.sleep(PAUSE_TIME);
+                playingCpuTime = playingCpuTime + (osBean.getProcessCpuTime() - beforeCpuTime);
+                playingFrames = playingFrames + (pauseBackend.getFrameCount() - beforeFrames);
+
+                //Let the frame being drawn finish before measuring the pause
+                panel.pauseGame();
+                Thread.sleep(1000L/PAUSE_FPS + 1L);
+                beforeCpuTime = osBean.getProcessCpuTime();
+                beforeFrames = pauseBackend.getFrameCount();
+                Thread.sleep(PAUSE_TIME);
+                pausedCpuTime = pausedCpuTime + (osBean.getProcessCpuTime() - beforeCpuTime);
+                pausedFrames = pausedFrames + (pauseBackend.getFrameCount() - beforeFrames);
+
+                //Resume and wait for the next frame
+                long resumeTime = System.nanoTime();
+                long framesBefore = pauseBackend.getFrameCount();
+                panel.resumeGame();
+                while (pauseBackend.getFrameCount() == framesBefore)
+                {
+                    Thread.onSpinWait();
+                }
+                resumeTimes.record(System.nanoTime() - resumeTime);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        panel.stopGame();
+
+        double measuredNanos = PAUSE_COUNT * PAUSE_TIME * 1000000.0;
+        System.out.println();
+        System.out.println(String.format("%-28s %12s %14s %12s %14s %14s %14s", "Pause", "playing FPS", "playing CPU %",
+                "paused FPS", "paused CPU %", "resume p50 us", "resume max us"));
+        System.out.println(String.format("%-28s %12.1f %14.2f %12.1f %14.2f %14.1f %14.1f", name, playingFrames * 1000000000.0/measuredNanos,
+                playingCpuTime * 100.0/measuredNanos, pausedFrames * 1000000000.0/measuredNanos, pausedCpuTime * 100.0/measuredNanos,
+                resumeTimes.getValueAtPercentile(50.0)/1000.0, resumeTimes.getMax()/1000.0));
+    }
+
+    /**
+     * Start, play, and stop LIFECYCLE_GAMES new games in a panel.
+     * @param panel The panel.
+     * @param startTimes The histogram the time to start each game is recorded in (in nanos), or null.
+     * @param stopTimes The histogram the time to stop each game is recorded in (in nanos), or null.
+     */
+    private static void runLifecycle(PongPanel panel, LatencyHistogram startTimes, LatencyHistogram stopTimes)
+    {
+        for (int i = 0; i < LIFECYCLE_GAMES; i++)
+        {
+            long beforeStart = System.nanoTime();
+            panel.resetGame();
+            panel.startGame();
+            long afterStart = System.nanoTime();
+            try
+            {
+                Thread.sleep(LIFECYCLE_PLAY_TIME);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long beforeStop = System.nanoTime();
+            panel.stopGame();
+            long afterStop = System.nanoTime();
+
+            if (startTimes != null)
+            {
+                startTimes.record(afterStart - beforeStart);
+                stopTimes.record(afterStop - beforeStop);
+            }
+        }
+    }
+
+    /**
+     * Get the heap in use once the garbage collector has freed everything it can.
+     * @return The bytes of heap in use.
+     */
+    private static long getUsedHeap()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Run an operation repeatedly for one iteration.
+     * @param operation The operation to run.
+     * @return The number of times the operation ran.
+     */
+    private static long runIteration(Runnable operation)
+    {
+        long ops = 0L;
+        long startTime = System.nanoTime();
+        do
+        {
+            for (int i = 0; i < BATCH_SIZE; i++)
+            {
+                operation.run();
+            }
+            ops = ops + BATCH_SIZE;
+        }
+        while (System.nanoTime() - startTime < ITERATION_TIME);
+        return ops;
+    }
+
+    /**
+     * Get the total number of garbage collections so far.
+     * @return The number of collections.
+     */
+    private static long getGcCount()
+    {
+        long count = 0L;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            count = count + Math.max(0L, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * Get the total time spent collecting garbage so far.
+     * @return The collection time (in ms).
+     */
+    private static long getGcTime()
+    {
+        long time = 0L;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            time = time + Math.max(0L, gc.getCollectionTime());
+        }
+        return time;
+    }
+}
@@ -0,0 +1,330 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Date: 10/17/2026
+ */
+public class PongClient
+{
+    /** The link packets are sent and received through */
+    private NetLink link;
+    /** The address of the server */
+    private SocketAddress server;
+
+    /** The simulation that mirrors the server's, it is never updated itself, only given the server's state */
+    private PongSimulation sim;
+    /** The paddle this player controls (0 for left, 1 for right), or -1 until the server has said */
+    private int side = -1;
+
+    /** The inputs sent to the server, indexed by seq modulo HISTORY */
+    private byte[] inputs = new byte[NetProtocol.HISTORY];
+    /** The seq of the next input */
+    private int nextSeq = 1;
+    /** The newest input seq the server has applied */
+    private int appliedSeq;
+
+    /** The states received from the server, indexed by snapshot seq modulo HISTORY, they are the baselines of later snapshots */
+    private int[][] history = new int[NetProtocol.HISTORY][PongSimulation.STATE_SIZE];
+    /** The snapshot seq of each state in history */
+    private int[] historySeqs = new int[NetProtocol.HISTORY];
+    /** The seq of the newest snapshot received, or -1 if none */
+    private int newestSnapshot = -1;
+    /** An all zero state to decode against when the server sent a snapshot without a baseline */
+    private int[] emptyState = new int[PongSimulation.STATE_SIZE];
+
+    /** The most recent, average, and max round trip times (in nanos) */
+    private long roundTripTime;
+    private long totalRoundTripTime;
+    private long maxRoundTripTime;
+    private long roundTrips;
+    /** The number of times the predicted paddle didn't match the server's */
+    private long mispredictions;
+
+    /** The buffers packets are received into and written into */
+    private ByteBuffer inPacket = ByteBuffer.allocate(NetLink.MAX_PACKET);
+    private ByteBuffer outPacket = ByteBuffer.allocate(NetLink.MAX_PACKET);
+
+    /**
+     * A PongClient plays one paddle of a game run by a PongServer. Every tick it sends its input to the server
+     * and moves its own paddle straight away rather than waiting for the round trip. When a snapshot arrives the
+     * mirrored simulation is set to the server's state and the inputs the server hasn't applied yet are replayed
+     * on the player's paddle, so the paddle responds instantly but always agrees with the server.
+     * @param host The host name of the server.
+     * @param port The port of the server.
+     * @throws IOException If the channel can't be opened.
+     */
+    public PongClient(String host, int port) throws IOException
+    {
+        link = new NetLink(null);
+        server = new InetSocketAddress(host, port);
+        sim = new PongSimulation(0L);
+        Arrays.fill(historySeqs, -1);
+    }
+
+    /**
+     * Advance the client by one tick: apply the newest snapshot from the server, then predict and send this tick's input.
+     * @param simInputs A bitmask of the PongSimulation inputs held this tick, either player's keys move this player's paddle.
+     * @throws IOException If a packet can't be sent or received.
+     */
+    public void update(int simInputs) throws IOException
+    {
+        //Read every snapshot that arrived since the last tick, only the newest is shown
+        int shownSnapshot = newestSnapshot;
+        SocketAddress source;
+        while ((source = link.receive(inPacket)) != null)
+        {
+            if (source.equals(server))
+            {
+                try
+                {
+                    readSnapshot();
+                }
+                catch (BufferUnderflowException e)
+                {
+                    //Ignore packets that are cut short
+                }
+            }
+        }
+        if (newestSnapshot != shownSnapshot)
+        {
+            reconcile();
+        }
+        else
+        {
+            //Nothing new arrived, so hold everything where it is rather than interpolating the last move again
+            sim.updatePaddles(0);
+        }
+
+        //Record this tick's input and move the paddle now
+        int input = 0;
+        if ((simInputs & (PongSimulation.LEFT_UP | PongSimulation.RIGHT_UP)) != 0)
+        {
+            input = input | NetProtocol.UP;
+        }
+        if ((simInputs & (PongSimulation.LEFT_DOWN | PongSimulation.RIGHT_DOWN)) != 0)
+        {
+            input = input | NetProtocol.DOWN;
+        }
+        inputs[nextSeq & (NetProtocol.HISTORY - 1)] = (byte) input;
+        if (side >= 0)
+        {
+            getPaddle().update((input & NetProtocol.UP) != 0, (input & NetProtocol.DOWN) != 0);
+        }
+
+        sendInputs();
+        nextSeq++;
+        link.flush();
+        link.updateBandwidth(System.nanoTime());
+    }
+
+    /**
+     * Read a snapshot from the server and remember its state.
+     */
+    private void readSnapshot()
+    {
+        if (inPacket.get() != NetProtocol.SNAPSHOT)
+        {
+            return;
+        }
+        int player = inPacket.get();
+        int snapshotSeq = inPacket.getInt();
+        int baselineSeq = inPacket.getInt();
+        int snapshotAppliedSeq = inPacket.getInt();
+        long echoTime = inPacket.getLong();
+        int holdTime = inPacket.getInt();
+
+        //Skip snapshots older than the one shown, and any whose baseline has been forgotten
+        if (snapshotSeq <= newestSnapshot)
+        {
+            return;
+        }
+        int[] baseline = emptyState;
+        if (baselineSeq >= 0)
+        {
+            if (historySeqs[baselineSeq & (NetProtocol.HISTORY - 1)] != baselineSeq)
+            {
+                return;
+            }
+            baseline = history[baselineSeq & (NetProtocol.HISTORY - 1)];
+        }
+        int slot = snapshotSeq & (NetProtocol.HISTORY - 1);
+        NetProtocol.readDelta(inPacket, baseline, history[slot]);
+        historySeqs[slot] = snapshotSeq;
+        newestSnapshot = snapshotSeq;
+        side = player;
+        appliedSeq = snapshotAppliedSeq;
+
+        //The round trip is the time since the echoed input was sent, less the time the server held it for. Snapshots
+        //are only read once a tick, so it includes up to a tick of waiting, just as the player sees it
+        if (echoTime != 0L)
+        {
+            roundTripTime = System.nanoTime() - echoTime - holdTime * 1000L;
+            totalRoundTripTime = totalRoundTripTime + roundTripTime;
+            maxRoundTripTime = Math.max(maxRoundTripTime, roundTripTime);
+            roundTrips++;
+        }
+    }
+
+    /**
+     * Show the newest snapshot, then replay the inputs the server hadn't applied yet on the player's paddle.
+     */
+    private void reconcile()
+    {
+        Paddle paddle = getPaddle();
+        int predictedY = paddle.getYPos();
+
+        sim.setState(history[newestSnapshot & (NetProtocol.HISTORY - 1)]);
+        for (int seq = Math.max(appliedSeq + 1, nextSeq - NetProtocol.HISTORY); seq < nextSeq; seq++)
+        {
+            int input = inputs[seq & (NetProtocol.HISTORY - 1)];
+            paddle.update((input & NetProtocol.UP) != 0, (input & NetProtocol.DOWN) != 0);
+        }
+
+        //The server only ever disagrees if inputs were lost for good or applied late
+        if (paddle.getYPos() != predictedY)
+        {
+            mispredictions++;
+        }
+    }
+
+    /**
+     * Send the inputs the server hasn't applied yet, newest first, so a lost packet is covered by the next one.
+     * @throws IOException If the packet can't be sent.
+     */
+    private void sendInputs() throws IOException
+    {
+        int count = Math.min(NetProtocol.MAX_INPUTS_PER_PACKET, nextSeq - appliedSeq);
+        outPacket.clear();
+        outPacket.put(NetProtocol.INPUT);
+        outPacket.putInt(nextSeq);
+        outPacket.putLong(System.nanoTime());
+        outPacket.putInt(newestSnapshot);
+        outPacket.put((byte) count);
+        for (int i = 0; i < count; i++)
+        {
+            outPacket.put(inputs[(nextSeq - i) & (NetProtocol.HISTORY - 1)]);
+        }
+        outPacket.flip();
+        link.send(outPacket, server);
+    }
+
+    /**
+     * Get the paddle this player controls.
+     * @return The paddle, the left one until the server has said which it is.
+     */
+    private Paddle getPaddle()
+    {
+        return (side == 1) ? sim.getRightPaddle() : sim.getLeftPaddle();
+    }
+
+    /**
+     * Get the simulation that mirrors the server's, this is what the PongPanel renders.
+     * @return The simulation.
+     */
+    public PongSimulation getSimulation()
+    {
+        return sim;
+    }
+
+    /**
+     * Get the most recent round trip time to the server.
+     * @return The round trip time (in nanos).
+     */
+    public long getRoundTripTime()
+    {
+        return roundTripTime;
+    }
+
+    /**
+     * Get the link to the server, which holds the bandwidth.
+     * @return The link.
+     */
+    public NetLink getLink()
+    {
+        return link;
+    }
+
+    /**
+     * Get a summary of the connection.
+     * @return The round trip times, mispredictions, and totals sent and received.
+     */
+    public String getReport()
+    {
+        return "Round trip " + ((roundTrips > 0) ? totalRoundTripTime/roundTrips/1000000.0 : 0.0) + " ms average, "
+                + maxRoundTripTime/1000000.0 + " ms max, " + mispredictions + " mispredictions, " + link.getTotals();
+    }
+
+    /**
+     * Close the connection.
+     */
+    public void close()
+    {
+        link.close();
+    }
+
+    /**
+     * Play one paddle of a networked game headless with pseudo-random inputs, reporting the round trip time and
+     * bandwidth once a second. Two of these can test a server on localhost without a display.
+     * @param args The server as host:port, and an optional number of seconds to play for.
+     */
+    public static void main(String[] args)
+    {
+        try
+        {
+            args = PongConfig.init(args);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
+        if (args.length == 0)
+        {
+            System.out.println("Usage: java PongClient host:port [seconds]");
+            return;
+        }
+        try
+        {
+            int colon = args[0].lastIndexOf(':');
+            PongClient client = new PongClient(args[0].substring(0, colon), Integer.parseInt(args[0].substring(colon + 1)));
+            long ticks = (args.length > 1) ? Long.parseLong(args[1]) * PongSimulation.UPS : Long.MAX_VALUE;
+
+            int inputSeed = (int) System.nanoTime() | 1;
+            long startTime = System.nanoTime();
+            for (long tick = 1; tick <= ticks; tick++)
+            {
+                //Hold each set of keys for 8 ticks so the paddle actually travels
+                if ((tick & 7) == 0)
+                {
+                    inputSeed ^= inputSeed << 13;
+                    inputSeed ^= inputSeed >>> 17;
+                    inputSeed ^= inputSeed << 5;
+                }
+                client.update(inputSeed & 0xF);
+
+                if ((tick % PongSimulation.UPS) == 0)
+                {
+                    PongSimulation sim = client.getSimulation();
+                    System.out.println(String.format("Side %d, score %d/%d, RTT %.1f ms, up %.0f B/s, down %.0f B/s",
+                            client.side, sim.getLeftScore(), sim.getRightScore(), client.getRoundTripTime()/1000000.0,
+                            client.getLink().getSentPerSecond(), client.getLink().getReceivedPerSecond()));
+                }
+                WaitStrategy.PARK.waitUntil(startTime + (tick * 1000000000L)/PongSimulation.UPS);
+            }
+            System.out.println(client.getReport());
+            client.close();
+        }
+        catch (NumberFormatException | StringIndexOutOfBoundsException e)
+        {
+            System.out.println("Usage: java PongClient host:port [seconds]");
+        }
+        catch (IOException e)
+        {
+            System.out.println("Unable to reach the server: " + e);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Date: 10/17/2026
+ */
+public final class PongConfig
+{
+    /** The system property naming the properties file the config is loaded from */
+    public static final String CONFIG_PROPERTY = "pong.config";
+
+    /** The config, or null until something asks for it */
+    private static PongConfig config;
+    /** The settings given as --name=value flags, kept apart from the system properties */
+    private static Properties flags = new Properties();
+
+    /** Every setting, from the defaults, the config file, the system properties, and the flags in that order */
+    private final Properties properties;
+
+    /** The width and height of the field (in pixels) */
+    public final int fieldWidth;
+    public final int fieldHeight;
+    /** The number of points a player needs to win */
+    public final int winningScore;
+    /** The radius of the ball (in pixels) */
+    public final int ballRadius;
+    /** The number of pixels the ball moves horizontally and vertically per update */
+    public final int ballXStep;
+    public final int ballYStep;
+    /** The speed the ball gains each time it hits a paddle in a rally, and its max speed (in percent of its serving speed) */
+    public final int ballSpeedUp;
+    public final int ballMaxSpeed;
+    /** The width and height of the paddles (in pixels) */
+    public final int paddleWidth;
+    public final int paddleHeight;
+    /** The number of pixels a paddle moves per update while its key is held */
+    public final int paddleStep;
+
+    /**
+     * A PongConfig holds the match rules and physics settings, read once when the game starts. Each setting
+     * is a pong.* property, which can be given as a -D system property, as a --name=value command line flag
+     * (for pong.name), or in a properties file named by -Dpong.config=<file>. A flag or system property beats
+     * the file, and the file beats the defaults, which are the original game's. The classes that use the settings
+     * copy them into final fields when they are created, so the hot paths never look them up. The other pong.*
+     * settings (the renderer, wait strategy, and so on) are looked up with getString() and friends.
+     * @param properties The properties to read the settings from.
+     * @throws IllegalArgumentException If a setting isn't an integer, or the settings don't make a playable game.
+     */
+    private PongConfig(Properties properties)
+    {
+        this.properties = properties;
+        fieldWidth = getInt(properties, "pong.width", 700);
+        fieldHeight = getInt(properties, "pong.height", 400);
+        winningScore = getInt(properties, "pong.score", 5);
+        ballRadius = getInt(properties, "pong.ball.radius", 10);
+        ballXStep = getInt(properties, "pong.ball.xstep", 10);
+        ballYStep = getInt(properties, "pong.ball.ystep", 10);
+        ballSpeedUp = getInt(properties, "pong.ball.speedup", 5);
+        ballMaxSpeed = getInt(properties, "pong.ball.maxspeed", 300);
+        paddleWidth = getInt(properties, "pong.paddle.width", 25);
+        paddleHeight = getInt(properties, "pong.paddle.height", 100);
+        paddleStep = getInt(properties, "pong.paddle.step", 15);
+
+        //The ball must be able to travel between the paddles, and the paddles must fit on the field
+        require((fieldWidth > 2 * paddleWidth + 2 * ballRadius) && (fieldHeight > 2 * ballRadius), "the field is too small for the ball and paddles");
+        require((ballRadius > 0) && (ballXStep > 0) && (ballYStep >= 0), "the ball needs a positive radius and xstep");
+        require((ballSpeedUp >= 0) && (ballMaxSpeed >= 100), "the ball can't slow down with each hit");
+        require((paddleWidth > 0) && (paddleHeight > 0) && (paddleHeight <= fieldHeight) && (paddleStep > 0), "the paddles must fit on the field and move");
+        require(winningScore > 0, "the winning score must be positive");
+    }
+
+    /**
+     * Get the config, loading it the first time this is called. This is only called as the simulation's
+     * classes are loaded and created, never per update.
+     * @return The config.
+     * @throws IllegalArgumentException If the config can't be loaded.
+     */
+    public static synchronized PongConfig get()
+    {
+        if (config == null)
+        {
+            config = load();
+        }
+        return config;
+    }
+
+    /**
+     * Set up the config from a program's arguments, first thing in main() before anything uses it. The
+     * --name=value flags are kept as pong.name settings, then the config is loaded. If it is invalid the
+     * program should print the problem and exit, rather than fail later part way through loading a class.
+     * @param args The program's arguments.
+     * @return The arguments that aren't flags, in order.
+     * @throws IllegalArgumentException If the config can't be loaded.
+     */
+    public static synchronized String[] init(String[] args)
+    {
+        String[] remaining = applyArgs(args);
+        get();
+        return remaining;
+    }
+
+    /**
+     * Keep the --name=value flags in a program's arguments as pong.name settings, so they override the
+     * system properties and the config file.
+     * @param args The program's arguments.
+     * @return The arguments that aren't flags, in order.
+     */
+    private static String[] applyArgs(String[] args)
+    {
+        List<String> remaining = new ArrayList<String>();
+        for (String arg : args)
+        {
+            int equals = arg.indexOf('=');
+            if (arg.startsWith("--") && (equals > 2))
+            {
+                flags.setProperty("pong." + arg.substring(2, equals), arg.substring(equals + 1));
+            }
+            else
+            {
+                remaining.add(arg);
+            }
+        }
+        return remaining.toArray(new String[0]);
+    }
+
+    /**
+     * Load the config file, if one is named, then lay the system properties and the flags over it and read the
+     * settings. The other pong.* settings (the renderer, wait strategy, and so on) can be set in the file too.
+     * The system properties are only read, never changed.
+     * @return The config.
+     */
+    private static PongConfig load()
+    {
+        Properties properties = new Properties();
+        String path = flags.getProperty(CONFIG_PROPERTY, System.getProperty(CONFIG_PROPERTY));
+        if (path != null)
+        {
+            Properties file = new Properties();
+            try (InputStream in = new FileInputStream(path))
+            {
+                file.load(in);
+            }
+            catch (IOException e)
+            {
+                throw new IllegalArgumentException("Unable to read the config file " + path + ": " + e);
+            }
+            for (String name : file.stringPropertyNames())
+            {
+                properties.setProperty(name, file.getProperty(name).trim());
+            }
+        }
+        Properties system = System.getProperties();
+        for (String name : system.stringPropertyNames())
+        {
+            if (name.startsWith("pong."))
+            {
+                properties.setProperty(name, system.getProperty(name));
+            }
+        }
+        properties.putAll(flags);
+        return new PongConfig(properties);
+    }
+
+    /**
+     * Get a setting as it was given.
+     * @param name The name of the setting.
+     * @param defaultValue The value if the setting isn't given.
+     * @return The value of the setting.
+     */
+    public String getString(String name, String defaultValue)
+    {
+        return properties.getProperty(name, defaultValue);
+    }
+
+    /**
+     * Get an integer setting.
+     * @param name The name of the setting.
+     * @param defaultValue The value if the setting isn't given.
+     * @return The value of the setting.
+     * @throws IllegalArgumentException If the setting isn't an integer.
+     */
+    public int getInt(String name, int defaultValue)
+    {
+        return getInt(properties, name, defaultValue);
+    }
+
+    /**
+     * Get a long setting.
+     * @param name The name of the setting.
+     * @param defaultValue The value if the setting isn't given.
+     * @return The value of the setting.
+     * @throws IllegalArgumentException If the setting isn't an integer.
+     */
+    public long getLong(String name, long defaultValue)
+    {
+        String value = properties.getProperty(name);
+        if (value == null)
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return Long.parseLong(value.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("The setting " + name + " must be an integer: " + value);
+        }
+    }
+
+    /**
+     * Get a decimal setting.
+     * @param name The name of the setting.
+     * @param defaultValue The value if the setting isn't given.
+     * @return The value of the setting.
+     * @throws IllegalArgumentException If the setting isn't a number.
+     */
+    public double getDouble(String name, double defaultValue)
+    {
+        String value = properties.getProperty(name);
+        if (value == null)
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return Double.parseDouble(value.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("The setting " + name + " must be a number: " + value);
+        }
+    }
+
+    /**
+     * Get a true or false setting, anything but "true" (ignoring case) is false.
+     * @param name The name of the setting.
+     * @param defaultValue The value if the setting isn't given.
+     * @return The value of the setting.
+     */
+    public boolean getBoolean(String name, boolean defaultValue)
+    {
+        String value = properties.getProperty(name);
+        return (value == null) ? defaultValue : "true".equalsIgnoreCase(value.trim());
+    }
+
+    /**
+     * Get an integer setting.
+     * @param properties The properties to read the setting from.
+     * @param name The name of the setting.
+     * @param defaultValue The value if the setting isn't given.
+     * @return The value of the setting.
+     * @throws IllegalArgumentException If the setting isn't an integer.
+     */
+    private static int getInt(Properties properties, String name, int defaultValue)
+    {
+        String value = properties.getProperty(name);
+        if (value == null)
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return Integer.parseInt(value.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("The setting " + name + " must be an integer: " + value);
+        }
+    }
+
+    /**
+     * Check that the settings make a playable game.
+     * @param condition The condition the settings must meet.
+     * @param message What is wrong if they don't.
+     * @throws IllegalArgumentException If the condition is false.
+     */
+    private static void require(boolean condition, String message)
+    {
+        if (!condition)
+        {
+            throw new IllegalArgumentException("Invalid Pong config: " + message);
+        }
+    }
+
+    /**
+     * Get a summary of the settings.
+     * @return The settings as name=value pairs.
+     */
+    public String toString()
+    {
+        return "width=" + fieldWidth + " height=" + fieldHeight + " score=" + winningScore + " ball.radius=" + ballRadius
+                + " ball.xstep=" + ballXStep + " ball.ystep=" + ballYStep + " ball.speedup=" + ballSpeedUp
+                + " ball.maxspeed=" + ballMaxSpeed + " paddle.width=" + paddleWidth
+                + " paddle.height=" + paddleHeight + " paddle.step=" + paddleStep;
+    }
+}
@@ -1,5 +1,12 @@
 import javax.swing.*;
 import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 /**
  * @author Logan Karstetter
@@ -8,23 +15,28 @@ import java.awt.*;
 public class PongPanel extends JPanel implements Runnable
 {
     /** The width of the PongPanel */
-    public static final int PWIDTH = 700;
+    public static final int PWIDTH = PongSimulation.PWIDTH;
     /** The height of the PongPanel */
-    public static final int PHEIGHT = 400;
+    public static final int PHEIGHT = PongSimulation.PHEIGHT;
 
     /** The thread that runs the game loop */
-    private Thread animator;
+    private volatile Thread animator;
     /** Determines if the animator thread is running */
     private volatile boolean isRunning = false;
     /** Determines if the game is paused */
     private volatile boolean isPaused = false;
-    /** Determines if the game has ended */
-    private volatile boolean gameOver = false;
+    /** The lock and condition the animator thread parks on while the game is paused */
+    private final ReentrantLock pauseLock = new ReentrantLock();
+    private final Condition unpaused = pauseLock.newCondition();
+    /** Determines if the panel was repainted while paused, so the parked animator shows the last frame again */
+    private boolean isRepaintRequested = false;
+    /** Determines if a new game was asked for, the animator thread starts it before its next update */
+    private volatile boolean isResetRequested = false;
+    /** Called by the animator thread once the game loop stops, or null */
+    private Runnable stopListener;
 
-    /** The desired FPS/UPS */
+    /** The desired FPS, the game itself is always updated PongSimulation.UPS times per second */
     private int FPS;
-    /** The amount of time allocated for each cycle of the game loop (in nanos) */
-    private long loopPeriod;
     /** The time the game started (in nanos) */
     private long gameStartTime;
     /** The amount of time spent playing the game (in secs) */
@@ -35,11 +47,34 @@ public class PongPanel extends JPanel implements Runnable
     private static final int NUM_DELAYS_FOR_YIELD = 16;
     /** The max number of frames than can be skipped before the game is rendered */
     private static final int MAX_SKIPPED_FRAMES = 5;
+    /** The number of nanoseconds in one second */
+    private static final long NANOS_PER_SECOND = 1000000000L;
 
-    /** The graphics used to double buffer/render off-screen */
-    private Graphics dbGraphics;
-    /** The image created/rendered off-screen */
-    private Image dbImage;
+    /** The strategy the animator thread waits for the next frame with */
+    private WaitStrategy waitStrategy;
+    /** The backend that provides the buffer each frame is rendered into and shows it on the screen */
+    private RenderBackend backend;
+    /** The timing of the game loop, also available through JMX */
+    private FrameStats stats;
+    /** The name the stats are registered with JMX under */
+    private ObjectName statsName;
+    /** Determines if the stats overlay is drawn over the game */
+    private boolean showOverlay;
+
+    /** The parts of the current frame that changed since the previous frame and must be redrawn */
+    private DirtyRegion dirtyRegion;
+
+    /** The position the ball was drawn at in the previous frame */
+    private int lastBallX;
+    private int lastBallY;
+    /** The positions the paddles were drawn at in the previous frame */
+    private int lastLeftPaddleY;
+    private int lastRightPaddleY;
+    /** The scores, time, and game over state shown in the previous frame */
+    private int lastLeftScore;
+    private int lastRightScore;
+    private int lastTimeShown;
+    private boolean lastGameOver;
 
     /** The font used to display messages to the user */
     private Font pongFont;
@@ -47,45 +82,56 @@ public class PongPanel extends JPanel implements Runnable
     private FontMetrics fontMetrics;
     /** The color used to display the font/messages */
     private Color translucentWhite;
+    /** The HUD that displays the scores and game time from cached text images */
+    private HudLayer hud;
+    /** The pre-rendered images of the ball, paddles, and center line, or null to draw them as shapes every frame */
+    private SpriteCache sprites;
 
-    /** The paddle on the left side of the screen */
-    private Paddle leftPaddle;
-    /** The paddle on the right side of the screen */
-    private Paddle rightPaddle;
-    /** The ball that bounces around the screen */
-    private Ball ball;
+    /** The simulation that holds the paddles, ball, and scores */
+    private PongSimulation sim;
 
     /** The KeyManager that handles KeyEvents for this PongPanel */
     private KeyManager keyManager;
+    /** The controllers that move the left and right paddles */
+    private PaddleController leftController;
+    private PaddleController rightController;
+
+    /** The client of a networked game, or null if the game is played locally */
+    private PongClient netClient;
 
-    /** The score for the left paddle (player 1) */
-    private int leftScore;
-    /** The score for the left paddle (player 2) */
-    private int rightScore;
+    /** The replay the game's inputs are recorded into, or null if the game isn't being recorded */
+    private Replay replay;
+    /** The file the replay is saved to when the game stops */
+    private String replayPath;
+    /** The number of the game being played, counting rematches, later games' replays are saved with it in their names */
+    private int gameNumber = 1;
+    /** The log the game's events are recorded into, or null if they aren't being logged */
+    private TelemetryLog telemetry;
 
     /**
      * Create a new PongPanel for playing Pong. The panel is responsible for running the game loop
-     * which updates, renders, and draws the game at the desired FPS/UPS.
+     * which updates the game at a fixed UPS and renders/draws it at the desired FPS.
      */
     public PongPanel(int FPS)
     {
-        //Get the FPS and calculate the period
+        //Store the FPS, frame deadlines are calculated from it directly to avoid truncation
         this.FPS = FPS;
-        loopPeriod = ((long) 1000.0/FPS) * 1000000L; //ms -> nanos, could just be 1bill/FPS
 
         //Set the background color and size of the PongPanel
         setDoubleBuffered(false);
         setBackground(Color.BLACK);
         setPreferredSize(new Dimension(PWIDTH, PHEIGHT));
 
+        //The pong.* settings below come from the PongConfig, given as -D properties, flags, or a config file
+        PongConfig config = PongConfig.get();
+
         //Create the font and color
         pongFont = new Font("", Font.PLAIN, 20);
         fontMetrics = this.getFontMetrics(pongFont);
         translucentWhite = new Color(255, 255, 255, 200);
-
-        //Set the initial scores
-        leftScore = 0;
-        rightScore = 0;
+        hud = new HudLayer(this, pongFont, translucentWhite);
+        //The sprites can be turned off with -Dpong.sprites=false to compare against drawing the shapes
+        setSprites(!"false".equalsIgnoreCase(config.getString("pong.sprites", "true")));
 
         //Request focus to the panel so it can receive key events
         setFocusable(true);
@@ -95,10 +141,181 @@ public class PongPanel extends JPanel implements Runnable
         keyManager = new KeyManager(this);
         addKeyListener(keyManager);
 
-        //Create the paddles and ball
-        leftPaddle = new Paddle(this, keyManager, true);
-        rightPaddle = new Paddle(this, keyManager, false);
-        ball = new Ball(this, leftPaddle, rightPaddle);
+        //Create the paddle controllers, either paddle can be played by an AI with -Dpong.left/right=easy|normal|hard
+        leftController = AIController.fromName(config.getString("pong.left", "human"), keyManager);
+        rightController = AIController.fromName(config.getString("pong.right", "human"), keyManager);
+
+        //Create the rendering backend, selected with -Dpong.renderer=software|volatile|bufferstrategy
+        backend = createBackend(config.getString("pong.renderer", "software"));
+        dirtyRegion = new DirtyRegion(PWIDTH, PHEIGHT);
+
+        //Create the stats, the overlay can be shown with -Dpong.overlay=true or toggled with F3
+        stats = new FrameStats();
+
+        //Create the wait strategy, selected with -Dpong.wait=sleep|park|hybrid|spin
+        waitStrategy = WaitStrategy.fromName(config.getString("pong.wait", "sleep"));
+        stats.setWaitStrategy(waitStrategy);
+        showOverlay = config.getBoolean("pong.overlay", false);
+
+        //Create the simulation that this panel renders, with extra balls if requested with -Dpong.balls=<count>
+        sim = new PongSimulation(System.nanoTime(), config.getInt("pong.balls", 0));
+        if (sim.getBallField() != null)
+        {
+            //Split the extra balls across threads if requested with -Dpong.threads=<count>
+            sim.getBallField().setThreads(config.getInt("pong.threads", 1));
+        }
+
+        //Join a networked game if a server was given with -Dpong.connect=<host:port>, the panel then renders the server's game
+        String server = config.getString("pong.connect", null);
+        if (server != null)
+        {
+            connect(server);
+        }
+
+        //Record the game if a replay file was given with -Dpong.record=<file>, networked games can't be replayed locally
+        replayPath = config.getString("pong.record", null);
+        if ((replayPath != null) && (netClient == null))
+        {
+            replay = new Replay(sim.getSeed());
+        }
+
+        //Log the game's events if a telemetry file was given with -Dpong.telemetry=<file>
+        String telemetryPath = config.getString("pong.telemetry", null);
+        if ((telemetryPath != null) && (netClient == null))
+        {
+            try
+            {
+                setTelemetry(new TelemetryLog(telemetryPath));
+            }
+            catch (IOException e)
+            {
+                System.out.println("Unable to log telemetry to " + telemetryPath + ": " + e);
+            }
+        }
+    }
+
+    /**
+     * Join a networked game, the panel then renders the server's game. If the server can't be reached
+     * the game is played locally.
+     * @param server The server as host:port.
+     */
+    void connect(String server)
+    {
+        try
+        {
+            int colon = server.lastIndexOf(':');
+            netClient = new PongClient(server.substring(0, colon), Integer.parseInt(server.substring(colon + 1)));
+            sim = netClient.getSimulation();
+        }
+        catch (IOException | RuntimeException e)
+        {
+            System.out.println("Unable to connect to " + server + ", playing locally: " + e);
+        }
+    }
+
+    /**
+     * Log the game's events, the log is closed when the panel is removed.
+     * @param telemetry The log to append the events to.
+     */
+    void setTelemetry(TelemetryLog telemetry)
+    {
+        this.telemetry = telemetry;
+        sim.setTelemetry(telemetry);
+    }
+
+    /**
+     * Create the rendering backend with the given name. The software backend is used if the
+     * name is not recognized.
+     * @param name The name of the backend.
+     * @return The rendering backend.
+     */
+    private RenderBackend createBackend(String name)
+    {
+        if (name.equals("volatile"))
+        {
+            return new VolatileImageBackend(this);
+        }
+        else if (name.equals("bufferstrategy"))
+        {
+            //A buffer strategy needs a heavyweight canvas, so it covers the panel and takes the key events
+            BufferStrategyBackend strategyBackend = new BufferStrategyBackend();
+            Canvas canvas = strategyBackend.getCanvas();
+            canvas.addKeyListener(keyManager);
+            canvas.setFocusable(true);
+            setLayout(new BorderLayout());
+            add(canvas, BorderLayout.CENTER);
+            return strategyBackend;
+        }
+        return new SoftwareBackend(this);
+    }
+
+    /**
+     * Replace the rendering backend, this is used to render the game without a display.
+     * @param backend The backend to render frames with.
+     */
+    void setBackend(RenderBackend backend)
+    {
+        this.backend.dispose();
+        this.backend = backend;
+    }
+
+    /**
+     * Choose whether the ball, paddles, and center line are copied from pre-rendered sprites or drawn as shapes.
+     * @param useSprites Determines if the sprites are used.
+     */
+    void setSprites(boolean useSprites)
+    {
+        sprites = useSprites ? new SpriteCache(this) : null;
+    }
+
+    /**
+     * Render a frame and show it through the backend, outside of the game loop. This is used
+     * by the benchmarks and tools that render the game without a display.
+     * @param interpolation How far the time is between the last update and the next (0.0 to 1.0).
+     */
+    void renderFrame(double interpolation)
+    {
+        gameRender(interpolation);
+        paintScreen();
+    }
+
+    /**
+     * Render a frame of a game that isn't being played in real time, showing a given game time rather
+     * than the time since the game started. This is used to export the frames of a replay.
+     * @param interpolation How far the time is between the last update and the next (0.0 to 1.0).
+     * @param gameTime The time the game has been playing for (in nanos).
+     */
+    void renderFrame(double interpolation, long gameTime)
+    {
+        gameStartTime = System.nanoTime() - gameTime;
+        renderFrame(interpolation);
+    }
+
+    /**
+     * Get the simulation this panel renders.
+     * @return The simulation.
+     */
+    PongSimulation getSimulation()
+    {
+        return sim;
+    }
+
+    /**
+     * Get the connection of a networked game.
+     * @return The client, or null if the game is played locally.
+     */
+    PongClient getNetClient()
+    {
+        return netClient;
+    }
+
+    /**
+     * Replace the simulation this panel renders, this is used to render a replay outside of the game loop.
+     * @param sim The simulation.
+     */
+    void setSimulation(PongSimulation sim)
+    {
+        this.sim = sim;
     }
 
     /**
@@ -110,25 +327,52 @@ public class PongPanel extends JPanel implements Runnable
     public void addNotify()
     {
         super.addNotify();
+        //Render the sprites again so they are compatible with the display the panel is now on
+        if (sprites != null)
+        {
+            sprites.clear();
+        }
         startGame();
     }
 
     /**
-     * Start the game (initialize/start the animator thread).
+     * Notifies this component that it no longer has a parent component. The game is stopped, and
+     * the replay, telemetry log, connection, and buffers it was using are finished and released.
      */
-    private void startGame()
+    public void removeNotify()
     {
+        stopGame();
+        finishGame();
+        super.removeNotify();
+    }
+
+    /**
+     * Start the game (initialize/start the animator thread). A stopped game carries on from where it
+     * was, everything the panel created for it is kept, so only the thread is new.
+     */
+    public synchronized void startGame()
+    {
+        //Let an animator that was asked to stop finish first
+        Thread previous = animator;
+        if ((previous != null) && !isRunning && (previous != Thread.currentThread()))
+        {
+            joinAnimator(previous);
+        }
+
         //Check that the animator thread is initialized
-        if (animator == null || !isRunning)
+        if ((animator == null) || !animator.isAlive())
         {
-            //Create/start the animator
-            animator = new Thread(this);
+            //Create/start the animator, it is marked as running first so a stop straight after is not lost
+            isRunning = true;
+            animator = new Thread(this, "Pong-animator");
             animator.start();
         }
     }
 
     /**
-     * Pause the game.
+     * Pause the game. The animator thread parks until the game is resumed, so nothing is updated,
+     * rendered, or painted in the meantime. A networked game carries on at the server, so only the
+     * player's inputs stop.
      */
     public void pauseGame()
     {
@@ -136,248 +380,689 @@ public class PongPanel extends JPanel implements Runnable
     }
 
     /**
-     * Resume the game.
+     * Resume the game, waking the animator thread so the next frame is drawn straight away.
      */
     public void resumeGame()
     {
         isPaused = false;
+        wakeAnimator();
+    }
+
+    /**
+     * Clear the request to show the last frame again.
+     * @return True if the panel was repainted since the last call.
+     */
+    private boolean consumeRepaintRequest()
+    {
+        pauseLock.lock();
+        try
+        {
+            boolean requested = isRepaintRequested;
+            isRepaintRequested = false;
+            return requested;
+        }
+        finally
+        {
+            pauseLock.unlock();
+        }
+    }
+
+    /**
+     * Wake the animator thread if it is parked while the game is paused.
+     */
+    private void wakeAnimator()
+    {
+        pauseLock.lock();
+        try
+        {
+            unpaused.signalAll();
+        }
+        finally
+        {
+            pauseLock.unlock();
+        }
+    }
+
+    /**
+     * Park the animator thread until the game is resumed or stopped, or the panel is repainted.
+     */
+    private void parkWhilePaused()
+    {
+        pauseLock.lock();
+        try
+        {
+            while (isPaused && isRunning && !isRepaintRequested)
+            {
+                unpaused.await();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            //Nothing interrupts the animator, if something does the game loop carries on and parks again
+        }
+        finally
+        {
+            pauseLock.unlock();
+        }
     }
 
     /**
-     * Stop the game, set isRunning to false.
+     * Paint the panel when Swing asks to, e.g. when the window is uncovered. The game is drawn
+     * by the animator thread, so while it is parked it is woken to show the last frame again.
+     * @param g The graphics to paint with.
+     */
+    protected void paintComponent(Graphics g)
+    {
+        super.paintComponent(g);
+        if (isPaused)
+        {
+            pauseLock.lock();
+            try
+            {
+                isRepaintRequested = true;
+                unpaused.signalAll();
+            }
+            finally
+            {
+                pauseLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Stop the game, set isRunning to false and wait for the animator thread to finish its loop. It is
+     * woken if it is parked while paused, otherwise it finishes waiting for the next frame, so this returns
+     * within one frame. The thread isn't interrupted, an interrupt would close the network and telemetry
+     * channels it is using. When called by the animator thread itself (e.g. the esc key) the loop stops
+     * after the current frame.
      */
     public void stopGame()
     {
         isRunning = false;
+        wakeAnimator();
+        Thread stopping = animator;
+        if ((stopping != null) && (stopping != Thread.currentThread()))
+        {
+            joinAnimator(stopping);
+        }
+    }
+
+    /**
+     * Wait for an animator thread to finish.
+     * @param thread The animator thread.
+     */
+    private void joinAnimator(Thread thread)
+    {
+        try
+        {
+            thread.join();
+        }
+        catch (InterruptedException e)
+        {
+            //Keep the interrupt for the caller, the animator still stops on its own
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Start a new game in place of the current one, with a new seed, reusing the simulation and
+     * everything else already created. This can be called from any thread, the animator thread
+     * starts the game before its next update, or when it is next started. A networked game belongs
+     * to the server, so it can't be reset.
+     */
+    public void resetGame()
+    {
+        if (netClient == null)
+        {
+            isResetRequested = true;
+        }
+    }
+
+    /**
+     * Start a new game once the current one is over. This is called by the KeyManager on the animator thread.
+     */
+    public void rematch()
+    {
+        if (sim.isGameOver())
+        {
+            resetGame();
+        }
+    }
+
+    /**
+     * Set what to do once the game loop stops, e.g. to close the window the game is in.
+     * @param stopListener Called by the animator thread after the loop stops, or null.
+     */
+    public void setStopListener(Runnable stopListener)
+    {
+        this.stopListener = stopListener;
+    }
+
+    /**
+     * Start the new game that was asked for. The replay, if the game is recorded, starts again with it.
+     */
+    private void newGame()
+    {
+        isResetRequested = false;
+        //Save the game that ended before its simulation is reused
+        if (replay != null)
+        {
+            saveReplay();
+        }
+        gameNumber++;
+        sim.reset(System.nanoTime());
+        if (replay != null)
+        {
+            replay = new Replay(sim.getSeed());
+        }
+        gameStartTime = System.nanoTime();
+        timeSpentInGame = 0;
     }
 
     /**
-     * Repeatably update, render, paint, and sleep such that the game loop takes close to the amount of
-     * time allotted by the desired FPS (loopPeriod).
+     * Repeatably update, render, paint, and sleep. The game is updated at the fixed rate of
+     * PongSimulation.UPS, while frames are rendered at the desired FPS by interpolating between
+     * the last two updates. Both schedules are calculated from their start time in nanos so that
+     * rounding errors never accumulate.
      */
     public void run()
     {
         //The time before the current loop/cycle begins
         long beforeTime;
-        //The time after the gameUpdate, gameRender, and paintScreen method calls
+        //The time after the gameRender and paintScreen method calls
         long afterTime;
         //The time taken to execute the gameUpdate, gameRender, and paintScreen methods
         long timeDifference;
 
-        //The amount of time remaining in the loopPeriod that the thread can sleep for
+        //The amount of time remaining before the next frame is due that the thread can sleep for
         long sleepTime;
         //The amount of time the thread overslept
         long overSleepTime = 0L;
 
         //The number of times the thread has looped/cycled without sleeping (methods take too long)
         int numDelays = 0;
-        //The total amount of excess time the methods took to perform, overTime = actual - loopPeriod
-        long overTime = 0L; //excess
+        //The amount of time the last frame finished after its deadline, overTime = actual - deadline
+        long overTime = 0L;
 
-        //Get the time before the first loop
-        gameStartTime = System.nanoTime();
-        beforeTime = gameStartTime;
+        //The time the tick schedule started and the number of ticks (updates) performed since
+        long tickStartTime;
+        long ticks = 0L;
+        //The time the frame schedule started and the number of frames rendered since
+        long frameStartTime;
+        long frames = 0L;
+        //How far the last frame was between two ticks, it is drawn again if the panel is repainted while paused
+        double interpolation = 0.0;
+
+        //Make the stats available through JMX while the game runs
+        registerStats();
+
+        //Get the time before the first loop, a restarted game carries on from the time already played
+        tickStartTime = System.nanoTime();
+        frameStartTime = tickStartTime;
+        gameStartTime = tickStartTime - timeSpentInGame * NANOS_PER_SECOND;
+        if (isResetRequested)
+        {
+            newGame();
+        }
 
         //Game loop
-        isRunning = true;
         while (isRunning)
         {
-            gameUpdate(); //Update the game
-            gameRender(); //Render to the buffer
+            //Park while a local game is paused, a networked game carries on at the server so it keeps updating
+            if (isPaused && (netClient == null))
+            {
+                long pauseStartTime = System.nanoTime();
+                parkWhilePaused();
+
+                //Move the schedules and the game clock past the pause, so it is neither counted nor caught up on
+                long pausedTime = System.nanoTime() - pauseStartTime;
+                tickStartTime = tickStartTime + pausedTime;
+                frameStartTime = frameStartTime + pausedTime;
+                gameStartTime = gameStartTime + pausedTime;
+
+                //Show the last frame again if the panel was repainted while paused
+                if (consumeRepaintRequest())
+                {
+                    gameRender(interpolation);
+                    paintScreen();
+                }
+                continue;
+            }
+
+            beforeTime = System.nanoTime();
+
+            //Update the game once for every tick that has come due. If rendering and animation are
+            //taking too long this updates the game without rendering it to keep the UPS constant
+            int skips = 0;
+            while ((beforeTime - tickStartTime) >= ((ticks + 1) * NANOS_PER_SECOND)/PongSimulation.UPS)
+            {
+                long updateTime = System.nanoTime();
+                gameUpdate();
+                stats.recordUpdate(System.nanoTime() - updateTime);
+                ticks++;
+
+                //Update x times without rendering, won't be noticeable if MAX_SKIPPED_FRAMES is small
+                if (++skips > MAX_SKIPPED_FRAMES)
+                {
+                    //Too far behind to catch up, so restart the tick schedule from the current tick
+                    tickStartTime = beforeTime - (ticks * NANOS_PER_SECOND)/PongSimulation.UPS;
+                    break;
+                }
+            }
+            //Every update after the first one this frame was an update without rendering
+            if (skips > 1)
+            {
+                stats.addSkippedFrames(skips - 1);
+            }
+
+            //Determine how far the time is between the last tick and the next one (0.0 to 1.0)
+            long tickTime = tickStartTime + (ticks * NANOS_PER_SECOND)/PongSimulation.UPS;
+            interpolation = ((beforeTime - tickTime) * PongSimulation.UPS)/(double) NANOS_PER_SECOND;
+            interpolation = Math.max(0.0, Math.min(1.0, interpolation));
+
+            long renderTime = System.nanoTime();
+            gameRender(interpolation); //Render to the buffer
+            long paintTime = System.nanoTime();
             paintScreen(); //Draw the buffer to the screen (active rendering)
+            frames++;
 
             //Get the time after the methods execute
             afterTime = System.nanoTime();
+            stats.recordRender(paintTime - renderTime);
+            stats.recordPaint(afterTime - paintTime);
+            stats.frameDone(afterTime);
             timeDifference = afterTime - beforeTime; //The time it took to update, render, and paint
 
-            //Calculate how much time is left for sleeping in this loopPeriod (1000000000/FPS)
-            sleepTime = (loopPeriod - timeDifference) - overSleepTime;
+            //Calculate how much time is left before the next frame is due (frame n is due at n * 1000000000/FPS)
+            sleepTime = (frameStartTime + (frames * NANOS_PER_SECOND)/FPS) - afterTime;
 
-            //Sleep
-            if (sleepTime > 0) //There is time left in the loopPeriod
+            //Wait for the next frame with the chosen strategy
+            if (sleepTime > 0) //There is time left before the next frame
             {
-                try
-                {
-                    Thread.sleep(sleepTime/1000000L); //nano -> ms
-                }
-                catch (InterruptedException e)
-                {
-                    //Do nothing
-                }
-                //Check if the animator overslept, overSleepTime will be deducted from the next sleepTime
+                waitStrategy.waitUntil(afterTime + sleepTime);
+                //Check if the animator overslept, the next deadline is absolute so this is not carried over
                 overSleepTime = (System.nanoTime() - afterTime) - sleepTime;
+                stats.recordOverSleep(overSleepTime);
+                overTime = 0L;
             }
-            else //If we didn't get a chance to sleep this loopPeriod (sleepTime <= 0)
+            else //If we didn't get a chance to sleep before the next frame (sleepTime <= 0)
             {
-                overTime = overTime - sleepTime; //Store the excess time (- because sleepTime is <= 0)
+                overTime = -sleepTime; //Store the excess time (- because sleepTime is <= 0)
                 overSleepTime = 0L; //Reset the oversleep time
 
+                //If the frame is more than a whole frame late, restart the frame schedule instead of
+                //rendering a burst of frames to catch up
+                if (overTime * FPS > NANOS_PER_SECOND)
+                {
+                    stats.addDroppedFrames((overTime * FPS)/NANOS_PER_SECOND);
+                    frameStartTime = afterTime;
+                    frames = 0L;
+                }
+
                 //See if the animator thread needs to yield
                 if (++numDelays >= NUM_DELAYS_FOR_YIELD) //(it hasn't slept for NUM_DELAYS_FOR_YIELD cycles)
                 {
                     Thread.yield();
+                    stats.recordYield();
                     numDelays = 0;
                 }
             }
+        }
 
-            //Get the beforeTime for the next cycle
-            beforeTime = System.nanoTime();
+        unregisterStats();
 
-            //If rendering and animation are taking too long, update the game without rendering it
-            //This will get the UPS closer to the desired FPS
-            int skips = 0;
-            while ((overTime > loopPeriod) && (skips < MAX_SKIPPED_FRAMES))
+        //Running is false, tell whoever is listening the game stopped
+        if (stopListener != null)
+        {
+            stopListener.run();
+        }
+    }
+
+    /**
+     * Finish the game once it is stopped for good: report the timing of every frame played, close the
+     * connection of a networked game, save the replay, close the telemetry log, and release the buffers. The backend creates new buffers if the
+     * panel is shown again, but nothing more is recorded or logged.
+     */
+    private void finishGame()
+    {
+        //Report the frame time so the backends can be compared
+        long framesDrawn = stats.getFrameCount();
+        if (framesDrawn > 0)
+        {
+            double frameTime = stats.getRenderTimes().getMean() + stats.getPaintTimes().getMean();
+            System.out.println("Average frame time (" + backend.getName() + "): " + frameTime/1000000.0 + " ms");
+            System.out.println("Average pixels redrawn per frame: " + (stats.getTotalPixelsRedrawn()/framesDrawn) + " of " + (PWIDTH * PHEIGHT));
+        }
+        System.out.println("Frame pacing (" + waitStrategy.name().toLowerCase() + "): oversleep "
+                + stats.getOverSleepTimeP50() + " us median, " + stats.getOverSleepTimeP99() + " us p99, animator CPU "
+                + (int) (stats.getAnimatorCpuLoad() * 100.0) + "%");
+        System.out.println("Input latency: " + keyManager.getAverageLatency()/1000000.0 + " ms average, "
+                + keyManager.getMaxLatency()/1000000.0 + " ms max");
+
+        //Report the connection of a networked game
+        if (netClient != null)
+        {
+            System.out.println(netClient.getReport());
+            netClient.close();
+        }
+
+        //Save the recorded game
+        if (replay != null)
+        {
+            saveReplay();
+            replay = null;
+        }
+
+        //Finish the telemetry log
+        if (telemetry != null)
+        {
+            try
             {
-                //Update x times without rendering, won't be noticeable if MAX_SKIPPED_FRAMES is small
-                overTime = overTime - loopPeriod;
-                gameUpdate();
-                skips++;
+                telemetry.close();
+                System.out.println("Logged " + telemetry.getEventCount() + " events to " + PongConfig.get().getString("pong.telemetry", null));
             }
+            catch (IOException e)
+            {
+                System.out.println("Unable to finish the telemetry log: " + e);
+            }
+            sim.setTelemetry(null);
+            telemetry = null;
+        }
+        backend.dispose();
+    }
+
+    /**
+     * Save the replay of the current game. The first game is saved to the file given with -Dpong.record,
+     * each rematch after it to the same name with the game's number added, e.g. match-2.rpl.
+     */
+    private void saveReplay()
+    {
+        String path = replayPath;
+        if (gameNumber > 1)
+        {
+            int dot = path.lastIndexOf('.');
+            path = (dot > path.lastIndexOf(File.separatorChar)) ? path.substring(0, dot) + "-" + gameNumber + path.substring(dot)
+                    : path + "-" + gameNumber;
         }
 
-        //Running is false, so exit
-        System.exit(0);
+        replay.finish(sim);
+        try
+        {
+            replay.save(path);
+            System.out.println("Saved replay of " + replay.getTickCount() + " ticks to " + path);
+        }
+        catch (IOException e)
+        {
+            System.out.println("Unable to save replay to " + path + ": " + e);
+        }
     }
 
     /**
-     * Update the game elements as long as the game is not paused or over.
+     * Register the stats with the platform MBeanServer, so they can be watched with JConsole or any
+     * other JMX client. Each panel is registered under its own name.
      */
-    private void gameUpdate()
+    private void registerStats()
     {
-        if (!gameOver)
+        try
         {
-            //Update the keyManager and paddles
-            keyManager.update();
-            leftPaddle.update();
-            rightPaddle.update();
+            statsName = new ObjectName("Pong:type=FrameStats,id=" + System.identityHashCode(this));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(stats, statsName);
+        }
+        catch (JMException e)
+        {
+            System.out.println("Unable to register the frame stats with JMX: " + e);
+            statsName = null;
+        }
+    }
 
-            //Move the ball, but only if the game is not paused
-            if (!isPaused)
+    /**
+     * Remove the stats from the platform MBeanServer.
+     */
+    private void unregisterStats()
+    {
+        if (statsName != null)
+        {
+            try
             {
-                //Update the ball
-                ball.update();
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(statsName);
             }
-
+            catch (JMException e)
+            {
+                System.out.println("Unable to unregister the frame stats from JMX: " + e);
+            }
+            statsName = null;
         }
     }
 
     /**
-     * Render the game using double buffering. If it does not already exist, this
-     * method creates an Image the size of the PongPanel and draws to it offscreen.
-     * Drawing offscreen prevents flickering and then allows the paintScreen() method
-     * to draw the entire screen as an image rather than in layers.
+     * Show or hide the stats overlay. This is called by the KeyManager on the animator thread.
      */
-    private void gameRender()
+    public void toggleOverlay()
     {
-        //If the double buffered image has not been created yet
-        if (dbImage == null)
+        showOverlay = !showOverlay;
+    }
+
+    /**
+     * Update the game elements as long as the game is not paused or over.
+     */
+    private void gameUpdate()
+    {
+        //Update the keyManager, even once the game is over so a rematch can be asked for
+        keyManager.update();
+        if (isResetRequested)
+        {
+            newGame();
+        }
+
+        if (!sim.isGameOver())
         {
-            //Make an image to fit the panel
-            dbImage = createImage(PWIDTH, PHEIGHT);
-            if (dbImage == null)
+            int inputs = PongSimulation.combineInputs(leftController.decide(sim, true), rightController.decide(sim, false));
+
+            //A networked game is run by the server, which can't be paused, so only the player's input is sent
+            if (netClient != null)
             {
+                try
+                {
+                    netClient.update(isPaused ? 0 : inputs);
+                }
+                catch (IOException e)
+                {
+                    System.out.println("Lost the connection to the server: " + e);
+                    stopGame();
+                }
                 return;
             }
+
+            //Move the ball, but only if the game is not paused
+            if (!isPaused)
+            {
+                //Update the paddles and ball
+                sim.update(inputs);
+            }
             else
             {
-                //Get the graphics context to draw the dbImage offscreen
-                dbGraphics = dbImage.getGraphics();
+                sim.updatePaddles(inputs);
+                inputs = inputs | Replay.PAUSED;
             }
-        }
-
-        //Now that dbImage is created, clear the existing image/background
-        dbGraphics.setColor(Color.BLACK);
-        dbGraphics.fillRect(0, 0, PWIDTH, PHEIGHT);
-        //Draw a white line down the center of the panel
-        dbGraphics.setColor(Color.WHITE);
-        dbGraphics.fillRect(PWIDTH/2, 0, 2, PHEIGHT);
-
-        //Draw the game elements
-        leftPaddle.draw(dbGraphics);
-        rightPaddle.draw(dbGraphics);
-        ball.draw(dbGraphics);
 
-        //Print the game stats
-        printStats(dbGraphics);
+            //Record the tick exactly as it was applied
+            if (replay != null)
+            {
+                replay.record(inputs);
+            }
+        }
     }
 
     /**
-     * Actively render/draw the dbImage (created in gameRender()) onto the screen/PongPanel.
+     * Render the game using double buffering. The backend provides an off-screen buffer to draw
+     * into, drawing offscreen prevents flickering and then allows the paintScreen() method
+     * to draw the entire screen as an image rather than in layers. If the buffer still holds the
+     * previous frame, only the areas where something moved or the stats changed are redrawn.
+     * @param interpolation How far the time is between the last update and the next (0.0 to 1.0).
      */
-    private void paintScreen()
+    private void gameRender(double interpolation)
     {
-        Graphics g;
-        try
+        //Get the off-screen buffer, it won't exist until the panel is displayed
+        Graphics dbGraphics = backend.beginFrame();
+        if (dbGraphics == null)
         {
-            //Get the graphics context from the PongPanel
-            g = this.getGraphics();
+            return;
+        }
 
-            if ((g != null) && (dbImage != null))
-            {
-                //Draw the game screen as an entire image
-                g.drawImage(dbImage, 0, 0, null);
-            }
-            Toolkit.getDefaultToolkit().sync(); //Sync the display (only applies to odd systems)
-            g.dispose();
+        //Calculate the time playing as long as the game isn't over
+        if (!sim.isGameOver())
+        {
+            timeSpentInGame = (int) ((System.nanoTime() - gameStartTime)/1000000000L);  // ns --> secs
         }
-        catch (NullPointerException e)
+        //Render the stats again if they changed, they are only copied onto the frame after this
+        hud.update(sim.getLeftScore(), sim.getRightScore(), timeSpentInGame, sim.isGameOver());
+        boolean overlayChanged = hud.updateOverlay(stats, showOverlay);
+
+        //Find the areas that changed since the previous frame
+        findDirtyRegion(interpolation, overlayChanged);
+
+        //Redraw the whole scene within each dirty area, anything outside of them is left as it was
+        for (int i = 0; i < dirtyRegion.getCount(); i++)
         {
-            System.out.println("Graphics context error: " + e);
+            dbGraphics.setClip(dirtyRegion.getX(i), dirtyRegion.getY(i), dirtyRegion.getWidth(i), dirtyRegion.getHeight(i));
+            drawGame(dbGraphics, interpolation);
         }
+        dbGraphics.setClip(null);
+
+        //Count the pixels redrawn to compare against drawing the whole frame
+        stats.recordPixelsRedrawn(dirtyRegion.getPixelCount());
     }
 
     /**
-     * Print the game statistics onto the screen/PongPanel.
+     * Mark the areas of the frame that changed since the previous frame in the dirtyRegion. These are
+     * the old and new bounds of the ball and paddles, and the stats that changed. The whole frame is
+     * dirty if the backend no longer holds the previous frame.
+     * @param interpolation How far the time is between the last update and the next (0.0 to 1.0).
+     * @param overlayChanged Determines if the stats overlay was shown, hidden, or changed this frame.
      */
-    private void printStats(Graphics dbGraphics)
+    private void findDirtyRegion(double interpolation, boolean overlayChanged)
     {
-        //Set the font and color
-        dbGraphics.setFont(pongFont);
-        dbGraphics.setColor(translucentWhite);
+        Ball ball = sim.getBall();
+        Paddle leftPaddle = sim.getLeftPaddle();
+        Paddle rightPaddle = sim.getRightPaddle();
 
-        dbGraphics.drawString("Score - " + leftScore + "/5", 5, PHEIGHT - 5);
-        dbGraphics.drawString("Score - " + rightScore + "/5", PWIDTH - 115, PHEIGHT - 5);
+        //Get where everything is drawn this frame
+        int ballX = ball.getDrawX(interpolation);
+        int ballY = ball.getDrawY(interpolation);
+        int leftPaddleY = leftPaddle.getDrawY(interpolation);
+        int rightPaddleY = rightPaddle.getDrawY(interpolation);
 
-        //Calculate the time playing as long as the game isn't over
-        if (!gameOver)
+        dirtyRegion.clear();
+        //The extra balls of the multi-ball mode cover the whole field, so it is always redrawn in full
+        if (!backend.hasPreviousFrame() || (sim.getBallField() != null))
         {
-            timeSpentInGame = (int) ((System.nanoTime() - gameStartTime)/1000000000L);  // ns --> secs
-            //Write out the time spent in game
-            dbGraphics.drawString("Game time - " + timeSpentInGame, 5, 20);
+            dirtyRegion.addAll();
         }
         else
         {
-            dbGraphics.drawString("Game Over! Time - " + timeSpentInGame, 5, 20);
-            dbGraphics.drawString("Created by - Logan Karstetter", 5, 45);
+            //Cover the old and new bounds of anything that moved
+            if ((ballX != lastBallX) || (ballY != lastBallY))
+            {
+                dirtyRegion.addMoved(lastBallX, lastBallY, ballX, ballY, ball.getDiameter(), ball.getDiameter());
+            }
+            if (leftPaddleY != lastLeftPaddleY)
+            {
+                dirtyRegion.addMoved(leftPaddle.getXPos(), lastLeftPaddleY, leftPaddle.getXPos(), leftPaddleY,
+                        leftPaddle.getWidth(), leftPaddle.getHeight());
+            }
+            if (rightPaddleY != lastRightPaddleY)
+            {
+                dirtyRegion.addMoved(rightPaddle.getXPos(), lastRightPaddleY, rightPaddle.getXPos(), rightPaddleY,
+                        rightPaddle.getWidth(), rightPaddle.getHeight());
+            }
+
+            //Cover the stats that changed, the scores are along the bottom and the time is in the top left
+            int textHeight = fontMetrics.getAscent() + fontMetrics.getDescent();
+            if (sim.getLeftScore() != lastLeftScore)
+            {
+                dirtyRegion.add(0, PHEIGHT - 5 - textHeight, PWIDTH/2, textHeight + 5);
+            }
+            if (sim.getRightScore() != lastRightScore)
+            {
+                dirtyRegion.add(PWIDTH/2 + 2, PHEIGHT - 5 - textHeight, PWIDTH/2 - 2, textHeight + 5);
+            }
+            if ((timeSpentInGame != lastTimeShown) || (sim.isGameOver() != lastGameOver))
+            {
+                dirtyRegion.add(0, 0, PWIDTH/2, 45 + fontMetrics.getDescent());
+            }
+            if (overlayChanged)
+            {
+                dirtyRegion.add(hud.getOverlayX(), 0, PWIDTH - hud.getOverlayX(), hud.getOverlayHeight());
+            }
         }
+
+        //Remember what was drawn for the next frame
+        lastBallX = ballX;
+        lastBallY = ballY;
+        lastLeftPaddleY = leftPaddleY;
+        lastRightPaddleY = rightPaddleY;
+        lastLeftScore = sim.getLeftScore();
+        lastRightScore = sim.getRightScore();
+        lastTimeShown = timeSpentInGame;
+        lastGameOver = sim.isGameOver();
     }
 
     /**
-     * Increment the left score (player 1). The game ends once a player
-     * has scored five times.
+     * Draw the entire game, this is limited to the dirty areas by the clip of the graphics.
+     * @param dbGraphics The graphics to draw the game with.
+     * @param interpolation How far the time is between the last update and the next (0.0 to 1.0).
      */
-    public void leftScored()
+    private void drawGame(Graphics dbGraphics, double interpolation)
     {
-        //Increment the score
-        leftScore = leftScore + 1;
-        if (leftScore == 5)
+        //Clear the existing image/background
+        dbGraphics.setColor(Color.BLACK);
+        dbGraphics.fillRect(0, 0, PWIDTH, PHEIGHT);
+        if (sprites != null)
         {
-            gameOver = true;
+            //Copy the pre-rendered line and game elements
+            sprites.drawCenterLine(dbGraphics);
+            sprites.drawPaddle(dbGraphics, sim.getLeftPaddle(), interpolation);
+            sprites.drawPaddle(dbGraphics, sim.getRightPaddle(), interpolation);
+            if (sim.getBallField() != null)
+            {
+                SpriteCache.fillField(dbGraphics, sim.getBallField(), interpolation);
+            }
+            sprites.drawBall(dbGraphics, sim.getBall(), interpolation);
         }
+        else
+        {
+            //Draw a white line down the center of the panel
+            SpriteCache.fillCenterLine(dbGraphics);
+
+            //Draw the game elements
+            SpriteCache.fillPaddle(dbGraphics, sim.getLeftPaddle(), interpolation);
+            SpriteCache.fillPaddle(dbGraphics, sim.getRightPaddle(), interpolation);
+            if (sim.getBallField() != null)
+            {
+                SpriteCache.fillField(dbGraphics, sim.getBallField(), interpolation);
+            }
+            SpriteCache.fillBall(dbGraphics, sim.getBall(), interpolation);
+        }
+
+        //Print the game stats
+        printStats(dbGraphics);
     }
 
     /**
-     * Increment the right score (player 2). The game ends once a player
-     * has scored five times.
+     * Actively render/draw the frame rendered in gameRender() onto the screen/PongPanel.
      */
-    public void rightScored()
+    private void paintScreen()
     {
-        //Increment the score
-        rightScore = rightScore + 1;
-        if (rightScore == 5)
-        {
-            gameOver = true;
-        }
+        backend.showFrame();
+    }
+
+    /**
+     * Print the game statistics onto the screen/PongPanel.
+     */
+    private void printStats(Graphics dbGraphics)
+    {
+        //The text is already rendered, so this only copies the images
+        hud.draw(dbGraphics);
     }
 
 }
@@ -0,0 +1,371 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Date: 10/17/2026
+ */
+public class PongServer implements Match
+{
+    /** The port the server listens on when none is given */
+    public static final int DEFAULT_PORT = 5000;
+    /** The number of players in a game */
+    private static final int PLAYERS = 2;
+    /** The max number of received inputs a player can be ahead of the server before the oldest are applied at once */
+    private static final int MAX_BUFFERED_INPUTS = 4;
+    /** The time a player can go without sending a packet before its slot is freed for someone else (in nanos) */
+    private static final long PLAYER_TIMEOUT = 5000000000L;
+
+    /** The link packets are sent and received through */
+    private NetLink link;
+    /** The simulation the server runs, it is the only one that decides what happens */
+    private PongSimulation sim;
+
+    /** The addresses of the players, the first to connect plays the left paddle */
+    private SocketAddress[] players = new SocketAddress[PLAYERS];
+    /** The inputs received from each player, indexed by seq modulo HISTORY */
+    private byte[][] inputs = new byte[PLAYERS][NetProtocol.HISTORY];
+    /** The seq of the input in each slot of inputs */
+    private int[][] inputSeqs = new int[PLAYERS][NetProtocol.HISTORY];
+    /** The newest input seq received from each player */
+    private int[] receivedSeqs = new int[PLAYERS];
+    /** The newest input seq applied for each player */
+    private int[] appliedSeqs = new int[PLAYERS];
+    /** The newest snapshot seq each player has acknowledged, or -1 if none */
+    private int[] ackedSnapshots = {-1, -1};
+    /** The send time of each player's newest input packet, and when it arrived (in nanos) */
+    private long[] echoTimes = new long[PLAYERS];
+    private long[] echoReceivedTimes = new long[PLAYERS];
+    /** The time each player's last packet arrived (in nanos) */
+    private long[] lastHeardTimes = new long[PLAYERS];
+
+    /** The states sent in the last HISTORY snapshots, indexed by snapshot seq modulo HISTORY */
+    private int[][] history = new int[NetProtocol.HISTORY][PongSimulation.STATE_SIZE];
+    /** The snapshot seq of each state in history */
+    private int[] historySeqs = new int[NetProtocol.HISTORY];
+    /** The seq of the newest snapshot, this advances every tick even while the simulation is waiting */
+    private int snapshotSeq;
+    /** An all zero state to encode against when a player has no baseline */
+    private int[] emptyState = new int[PongSimulation.STATE_SIZE];
+
+    /** The buffers packets are received into and written into */
+    private ByteBuffer inPacket = ByteBuffer.allocate(NetLink.MAX_PACKET);
+    private ByteBuffer outPacket = ByteBuffer.allocate(NetLink.MAX_PACKET);
+
+    /**
+     * A PongServer runs the authoritative game for two players over UDP. Each tick it applies the players'
+     * inputs in the order they were sent, updates the simulation, and sends each player a snapshot of the
+     * state delta-compressed against the newest snapshot that player acknowledged. The snapshot tells the
+     * player which of its inputs have been applied, so it can replay the rest on top of the server's state.
+     * @param port The port to listen on.
+     * @param seed The seed of the game.
+     * @throws IOException If the port can't be opened.
+     */
+    public PongServer(int port, long seed) throws IOException
+    {
+        link = new NetLink(new InetSocketAddress(port));
+        sim = new PongSimulation(seed);
+        Arrays.fill(historySeqs, -1);
+    }
+
+    /**
+     * Run the server at PongSimulation.UPS ticks per second, reporting the bandwidth once a second.
+     * @throws IOException If a packet can't be sent or received.
+     */
+    public void run() throws IOException
+    {
+        long startTime = System.nanoTime();
+        long ticks = 0L;
+        while (true)
+        {
+            tick();
+            ticks++;
+
+            long now = System.nanoTime();
+            if (link.updateBandwidth(now))
+            {
+                System.out.println(String.format("Tick %d, score %d/%d, players %d, up %.0f B/s, down %.0f B/s",
+                        sim.getTick(), sim.getLeftScore(), sim.getRightScore(), getPlayerCount(),
+                        link.getReceivedPerSecond(), link.getSentPerSecond()));
+            }
+            WaitStrategy.PARK.waitUntil(startTime + (ticks * 1000000000L)/PongSimulation.UPS);
+        }
+    }
+
+    /**
+     * Read the waiting packets, advance the game by one tick, and send every player a snapshot.
+     * @throws IOException If a packet can't be sent or received.
+     */
+    public void tick() throws IOException
+    {
+        //Read every packet that arrived since the last tick
+        SocketAddress source;
+        while ((source = link.receive(inPacket)) != null)
+        {
+            try
+            {
+                readInputs(source);
+            }
+            catch (BufferUnderflowException e)
+            {
+                //Ignore packets that are cut short
+            }
+        }
+        dropSilentPlayers();
+
+        //Apply the next input of each player, the ball only moves once both have joined
+        int simInputs = 0;
+        for (int player = 0; player < PLAYERS; player++)
+        {
+            int playerInputs = nextInput(player);
+            if ((playerInputs & NetProtocol.UP) != 0)
+            {
+                simInputs = simInputs | ((player == 0) ? PongSimulation.LEFT_UP : PongSimulation.RIGHT_UP);
+            }
+            if ((playerInputs & NetProtocol.DOWN) != 0)
+            {
+                simInputs = simInputs | ((player == 0) ? PongSimulation.LEFT_DOWN : PongSimulation.RIGHT_DOWN);
+            }
+        }
+        if ((getPlayerCount() == PLAYERS) && !sim.isGameOver())
+        {
+            sim.update(simInputs);
+        }
+        else
+        {
+            sim.updatePaddles(simInputs);
+        }
+
+        //Remember the state so later snapshots can be sent as changes from it
+        snapshotSeq++;
+        int slot = snapshotSeq & (NetProtocol.HISTORY - 1);
+        sim.getState(history[slot]);
+        historySeqs[slot] = snapshotSeq;
+
+        for (int player = 0; player < PLAYERS; player++)
+        {
+            if (players[player] != null)
+            {
+                sendSnapshot(player, history[slot]);
+            }
+        }
+        link.flush();
+    }
+
+    /**
+     * Read a packet of inputs, the first two addresses to send one become the players.
+     * @param source The address the packet came from.
+     */
+    private void readInputs(SocketAddress source)
+    {
+        if (inPacket.get() != NetProtocol.INPUT)
+        {
+            return;
+        }
+        int player = getPlayer(source);
+        if (player < 0)
+        {
+            return;
+        }
+        lastHeardTimes[player] = System.nanoTime();
+
+        int newestSeq = inPacket.getInt();
+        long sendTime = inPacket.getLong();
+        int ackedSnapshot = inPacket.getInt();
+        int count = inPacket.get();
+
+        //If the player is so far ahead that the inputs in between are no longer sent, skip past them
+        if (newestSeq - count > appliedSeqs[player])
+        {
+            appliedSeqs[player] = newestSeq - count;
+        }
+
+        //The inputs are newest first, keep the ones that haven't been received yet
+        for (int i = 0; i < count; i++)
+        {
+            int seq = newestSeq - i;
+            byte input = inPacket.get();
+            if ((seq > appliedSeqs[player]) && (seq > newestSeq - NetProtocol.HISTORY))
+            {
+                inputs[player][seq & (NetProtocol.HISTORY - 1)] = input;
+                inputSeqs[player][seq & (NetProtocol.HISTORY - 1)] = seq;
+            }
+        }
+
+        //Packets can arrive out of order, only the newest counts for acks and round trips
+        if (newestSeq > receivedSeqs[player])
+        {
+            receivedSeqs[player] = newestSeq;
+            echoTimes[player] = sendTime;
+            echoReceivedTimes[player] = System.nanoTime();
+        }
+        ackedSnapshots[player] = Math.max(ackedSnapshots[player], ackedSnapshot);
+    }
+
+    /**
+     * Get the player an address belongs to, adding it as a new player if there is room.
+     * @param source The address.
+     * @return The player (0 for left, 1 for right), or -1 if the game is full.
+     */
+    private int getPlayer(SocketAddress source)
+    {
+        for (int player = 0; player < PLAYERS; player++)
+        {
+            if (source.equals(players[player]))
+            {
+                return player;
+            }
+        }
+        for (int player = 0; player < PLAYERS; player++)
+        {
+            if (players[player] == null)
+            {
+                players[player] = source;
+                System.out.println("Player " + (player + 1) + " joined from " + source);
+                return player;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Free the slot of any player that hasn't sent a packet for PLAYER_TIMEOUT, so a player whose game closed
+     * or whose connection dropped can join again, from the same address or a new one. The game waits, with
+     * the ball still, until the slot is filled again.
+     */
+    private void dropSilentPlayers()
+    {
+        long now = System.nanoTime();
+        for (int player = 0; player < PLAYERS; player++)
+        {
+            if ((players[player] != null) && (now - lastHeardTimes[player] > PLAYER_TIMEOUT))
+            {
+                System.out.println("Player " + (player + 1) + " at " + players[player] + " timed out");
+                players[player] = null;
+                Arrays.fill(inputs[player], (byte) 0);
+                Arrays.fill(inputSeqs[player], 0);
+                receivedSeqs[player] = 0;
+                appliedSeqs[player] = 0;
+                ackedSnapshots[player] = -1;
+                echoTimes[player] = 0L;
+                echoReceivedTimes[player] = 0L;
+            }
+        }
+    }
+
+    /**
+     * Get the next input of a player in the order they were sent. If the next input hasn't arrived the paddle
+     * stays still, so the paddle's position only ever depends on the inputs applied, which is what the player
+     * predicts. If the player has got too far ahead, the inputs in between are applied to its paddle at once.
+     * @param player The player.
+     * @return The input to apply this tick.
+     */
+    private int nextInput(int player)
+    {
+        if (!hasInput(player, appliedSeqs[player] + 1))
+        {
+            return 0;
+        }
+        appliedSeqs[player]++;
+        int input = inputs[player][appliedSeqs[player] & (NetProtocol.HISTORY - 1)];
+
+        Paddle paddle = (player == 0) ? sim.getLeftPaddle() : sim.getRightPaddle();
+        while (hasInput(player, appliedSeqs[player] + MAX_BUFFERED_INPUTS) && hasInput(player, appliedSeqs[player] + 1))
+        {
+            //Catch up by moving the paddle now, just as the player predicted it
+            paddle.update((input & NetProtocol.UP) != 0, (input & NetProtocol.DOWN) != 0);
+            appliedSeqs[player]++;
+            input = inputs[player][appliedSeqs[player] & (NetProtocol.HISTORY - 1)];
+        }
+        return input;
+    }
+
+    /**
+     * Determine whether an input of a player has been received.
+     * @param player The player.
+     * @param seq The seq of the input.
+     * @return True if the input is waiting to be applied.
+     */
+    private boolean hasInput(int player, int seq)
+    {
+        return inputSeqs[player][seq & (NetProtocol.HISTORY - 1)] == seq;
+    }
+
+    /**
+     * Send a player a snapshot of the state, as the changes from the newest snapshot it acknowledged.
+     * @param player The player.
+     * @param state The state.
+     * @throws IOException If the snapshot can't be sent.
+     */
+    private void sendSnapshot(int player, int[] state) throws IOException
+    {
+        //Only encode against a baseline that is still remembered
+        int baselineSeq = ackedSnapshots[player];
+        int[] baseline = emptyState;
+        if ((baselineSeq >= 0) && (historySeqs[baselineSeq & (NetProtocol.HISTORY - 1)] == baselineSeq))
+        {
+            baseline = history[baselineSeq & (NetProtocol.HISTORY - 1)];
+        }
+        else
+        {
+            baselineSeq = -1;
+        }
+
+        outPacket.clear();
+        outPacket.put(NetProtocol.SNAPSHOT);
+        outPacket.put((byte) player);
+        outPacket.putInt(snapshotSeq);
+        outPacket.putInt(baselineSeq);
+        outPacket.putInt(appliedSeqs[player]);
+        outPacket.putLong(echoTimes[player]);
+        outPacket.putInt((int) ((System.nanoTime() - echoReceivedTimes[player])/1000L));
+        NetProtocol.writeDelta(outPacket, state, baseline);
+        outPacket.flip();
+        link.send(outPacket, players[player]);
+    }
+
+    /**
+     * Get the number of players that have joined.
+     * @return The number of players.
+     */
+    private int getPlayerCount()
+    {
+        return ((players[0] != null) ? 1 : 0) + ((players[1] != null) ? 1 : 0);
+    }
+
+    /**
+     * Run a server for a networked game. The players join by running the game with -Dpong.connect=host:port.
+     * @param args An optional port, and an optional seed for the game.
+     */
+    public static void main(String[] args)
+    {
+        try
+        {
+            args = PongConfig.init(args);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
+        try
+        {
+            int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+            long seed = (args.length > 1) ? Long.parseLong(args[1]) : System.nanoTime();
+            PongServer server = new PongServer(port, seed);
+            System.out.println("Pong server listening on port " + port + " with seed " + seed);
+            server.run();
+        }
+        catch (NumberFormatException e)
+        {
+            System.out.println("Usage: java PongServer [port] [seed]");
+        }
+        catch (IOException e)
+        {
+            System.out.println("Unable to run the server: " + e);
+        }
+    }
+}
@@ -0,0 +1,429 @@
+/**
+ * Date: 10/17/2026
+ */
+public class PongSimulation
+{
+    /** The width of the playing field, from the PongConfig, which is read once when this class loads */
+    public static final int PWIDTH = PongConfig.get().fieldWidth;
+    /** The height of the playing field */
+    public static final int PHEIGHT = PongConfig.get().fieldHeight;
+
+    /** The number of times the simulation is updated per second, independent of the FPS.
+     * The ball and paddle steps are given in pixels per update at this rate. */
+    public static final int UPS = 20;
+
+    /** The score a player must reach to win the game */
+    public static final int WINNING_SCORE = PongConfig.get().winningScore;
+
+    /** The input bit set when the left paddle's up key is held */
+    public static final int LEFT_UP = 1;
+    /** The input bit set when the left paddle's down key is held */
+    public static final int LEFT_DOWN = 1 << 1;
+    /** The input bit set when the right paddle's up key is held */
+    public static final int RIGHT_UP = 1 << 2;
+    /** The input bit set when the right paddle's down key is held */
+    public static final int RIGHT_DOWN = 1 << 3;
+
+    /** The number of ints written by getState(), in the order tick, scores, ball position and steps, and paddle positions */
+    public static final int STATE_SIZE = 9;
+
+    /** The paddle on the left side of the field */
+    private Paddle leftPaddle;
+    /** The paddle on the right side of the field */
+    private Paddle rightPaddle;
+    /** The ball that bounces around the field */
+    private Ball ball;
+    /** The extra balls of the multi-ball mode, or null if there are none */
+    private BallField ballField;
+    /** The log the game's events are appended to, or null if they aren't logged */
+    private TelemetryLog telemetry;
+
+    /** The score for the left paddle (player 1) */
+    private int leftScore;
+    /** The score for the right paddle (player 2) */
+    private int rightScore;
+    /** Determines if the game has ended */
+    private boolean gameOver;
+
+    /** The number of times the ball has hit a paddle since the last point was scored */
+    private int rallyHits;
+    /** The number of paddle hits in the rally before each point, in the order the points were scored */
+    private int[] rallies = new int[2 * WINNING_SCORE - 1];
+    /** The number of points scored */
+    private int points;
+
+    /** The number of updates/ticks the simulation has performed */
+    private long tick;
+
+    /** The seed the simulation's random numbers were started from */
+    private long seed;
+    /** The state of the SplitMix64 generator used for all of the simulation's random numbers */
+    private long randomState;
+
+    /**
+     * Create a new game of Pong that can be updated without any display. The simulation holds
+     * the paddles, the ball, and the scores, and advances them one tick per call to update().
+     * Nothing in here depends on Swing or AWT, so a PongPanel only has to render it.
+     * @param seed The seed for the simulation's random numbers. Two simulations with the same seed
+     *             that are given the same inputs every tick play out exactly the same.
+     */
+    public PongSimulation(long seed)
+    {
+        //Seed the random numbers before the ball uses them
+        this.seed = seed;
+        randomState = seed;
+
+        //Create the paddles and ball
+        leftPaddle = new Paddle(true);
+        rightPaddle = new Paddle(false);
+        ball = new Ball(this, leftPaddle, rightPaddle);
+    }
+
+    /**
+     * Create a new game of Pong with a field of extra balls that bounce off the walls, the paddles, and each
+     * other. The extra balls don't score, they are only there to make the game (and the computer) busy.
+     * @param seed The seed for the simulation's random numbers.
+     * @param extraBalls The number of extra balls, the field is left out if this is zero.
+     */
+    public PongSimulation(long seed, int extraBalls)
+    {
+        this(seed);
+
+        //The field hashes its own random numbers from the seed, so the main ball plays out the same with or without it
+        if (extraBalls > 0)
+        {
+            ballField = new BallField(extraBalls, seed ^ 0x5DEECE66DL, leftPaddle, rightPaddle);
+        }
+    }
+
+    /**
+     * Start a new game in this simulation, reusing its paddles, ball, and buffers. The new game plays out
+     * exactly as a new PongSimulation with the same seed would, and is logged to the same telemetry log
+     * with the same events, starting with a START event once everything is back in place.
+     * @param seed The seed for the new game's random numbers.
+     */
+    public void reset(long seed)
+    {
+        this.seed = seed;
+        randomState = seed;
+        leftScore = 0;
+        rightScore = 0;
+        gameOver = false;
+        rallyHits = 0;
+        points = 0;
+        tick = 0L;
+
+        //A new simulation serves before it is logged, so hold the log back until the ball is served
+        TelemetryLog log = telemetry;
+        telemetry = null;
+        leftPaddle.reset();
+        rightPaddle.reset();
+        ball.reset();
+        if (ballField != null)
+        {
+            ballField.reset(seed ^ 0x5DEECE66DL);
+        }
+        setTelemetry(log);
+    }
+
+    /**
+     * Advance the game by one tick as long as the game is not over.
+     * @param inputs A bitmask of the LEFT_UP, LEFT_DOWN, RIGHT_UP, and RIGHT_DOWN inputs held this tick.
+     */
+    public void update(int inputs)
+    {
+        if (!gameOver)
+        {
+            //Move the paddles first so the ball bounces off their current position
+            movePaddles(inputs);
+            ball.update();
+            if (ballField != null)
+            {
+                ballField.update();
+            }
+            tick++;
+        }
+    }
+
+    /**
+     * Move the paddles without moving the ball, this is used while the game is paused.
+     * @param inputs A bitmask of the LEFT_UP, LEFT_DOWN, RIGHT_UP, and RIGHT_DOWN inputs held this tick.
+     */
+    public void updatePaddles(int inputs)
+    {
+        movePaddles(inputs);
+        //The ball stays still, so stop interpolating its last move
+        ball.settle();
+        if (ballField != null)
+        {
+            ballField.settle();
+        }
+    }
+
+    /**
+     * Move the paddles according to the inputs held this tick.
+     * @param inputs A bitmask of the LEFT_UP, LEFT_DOWN, RIGHT_UP, and RIGHT_DOWN inputs held this tick.
+     */
+    private void movePaddles(int inputs)
+    {
+        leftPaddle.update((inputs & LEFT_UP) != 0, (inputs & LEFT_DOWN) != 0);
+        rightPaddle.update((inputs & RIGHT_UP) != 0, (inputs & RIGHT_DOWN) != 0);
+    }
+
+    /**
+     * Count a hit of the ball off a paddle in the current rally.
+     */
+    public void paddleHit()
+    {
+        rallyHits++;
+    }
+
+    /**
+     * Log the game's events from now on, starting with a START event.
+     * @param telemetry The log to append the events to, or null to stop logging.
+     */
+    public void setTelemetry(TelemetryLog telemetry)
+    {
+        this.telemetry = telemetry;
+        logEvent(TelemetryLog.START, TelemetryLog.NONE, 0);
+    }
+
+    /**
+     * Log an event with the ball's position and steps, if the game is being logged.
+     * @param event The event, one of the TelemetryLog events.
+     * @param side The side the event belongs to, TelemetryLog.LEFT, RIGHT, or NONE.
+     * @param value A value that depends on the event.
+     */
+    void logEvent(int event, int side, int value)
+    {
+        if (telemetry != null)
+        {
+            telemetry.append(tick, event, side, ball.getXPos(), ball.getYPos(), ball.getXStep(), ball.getYStep(), value);
+        }
+    }
+
+    /**
+     * Remember the length of the rally that just ended with a point.
+     */
+    private void endRally()
+    {
+        if (points < rallies.length)
+        {
+            rallies[points] = rallyHits;
+            points++;
+        }
+        rallyHits = 0;
+    }
+
+    /**
+     * Combine the moves of both paddles into an input bitmask.
+     * @param leftMove A bitmask of PaddleController.UP and DOWN for the left paddle.
+     * @param rightMove A bitmask of PaddleController.UP and DOWN for the right paddle.
+     * @return A bitmask of the LEFT_UP, LEFT_DOWN, RIGHT_UP, and RIGHT_DOWN inputs.
+     */
+    public static int combineInputs(int leftMove, int rightMove)
+    {
+        //The right paddle's bits are the left paddle's shifted up by two
+        return (leftMove & (LEFT_UP | LEFT_DOWN)) | ((rightMove << 2) & (RIGHT_UP | RIGHT_DOWN));
+    }
+
+    /**
+     * Increment the left score (player 1). The game ends once a player
+     * has scored WINNING_SCORE times.
+     */
+    public void leftScored()
+    {
+        logEvent(TelemetryLog.SCORE, TelemetryLog.LEFT, rallyHits);
+        endRally();
+        //Increment the score
+        leftScore = leftScore + 1;
+        if (leftScore == WINNING_SCORE)
+        {
+            gameOver = true;
+            logEvent(TelemetryLog.GAME_OVER, TelemetryLog.LEFT, (leftScore << 8) | rightScore);
+        }
+    }
+
+    /**
+     * Increment the right score (player 2). The game ends once a player
+     * has scored WINNING_SCORE times.
+     */
+    public void rightScored()
+    {
+        logEvent(TelemetryLog.SCORE, TelemetryLog.RIGHT, rallyHits);
+        endRally();
+        //Increment the score
+        rightScore = rightScore + 1;
+        if (rightScore == WINNING_SCORE)
+        {
+            gameOver = true;
+            logEvent(TelemetryLog.GAME_OVER, TelemetryLog.RIGHT, (leftScore << 8) | rightScore);
+        }
+    }
+
+    /**
+     * Write the state of the game into an array, this is everything needed to show the game (the extra balls
+     * and the random numbers are left out).
+     * @param state The array to write STATE_SIZE ints into.
+     */
+    public void getState(int[] state)
+    {
+        state[0] = (int) tick;
+        state[1] = leftScore;
+        state[2] = rightScore;
+        state[3] = ball.getXPos();
+        state[4] = ball.getYPos();
+        state[5] = ball.getXStep();
+        state[6] = ball.getYStep();
+        state[7] = leftPaddle.getYPos();
+        state[8] = rightPaddle.getYPos();
+    }
+
+    /**
+     * Overwrite the state of the game with one written by getState(), this is used to mirror a game
+     * that is being played somewhere else. Everything is interpolated from where it was.
+     * @param state The state.
+     */
+    public void setState(int[] state)
+    {
+        tick = state[0];
+        leftScore = state[1];
+        rightScore = state[2];
+        gameOver = (leftScore >= WINNING_SCORE) || (rightScore >= WINNING_SCORE);
+        ball.setState(state[3], state[4], state[5], state[6]);
+        leftPaddle.setYPos(state[7], leftPaddle.getYPos());
+        rightPaddle.setYPos(state[8], rightPaddle.getYPos());
+    }
+
+    /**
+     * Get the next random boolean. The numbers come from a SplitMix64 generator, which is fully
+     * specified by its seed and gives the same sequence on every JVM and CPU.
+     * @return A random boolean.
+     */
+    public boolean nextRandomBoolean()
+    {
+        return nextRandom() < 0L;
+    }
+
+    /**
+     * Get the next 64 random bits from the SplitMix64 generator.
+     * @return A random long.
+     */
+    public long nextRandom()
+    {
+        randomState = randomState + 0x9E3779B97F4A7C15L;
+        long z = randomState;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Get the paddle on the left side of the field.
+     * @return The left paddle.
+     */
+    public Paddle getLeftPaddle()
+    {
+        return leftPaddle;
+    }
+
+    /**
+     * Get the paddle on the right side of the field.
+     * @return The right paddle.
+     */
+    public Paddle getRightPaddle()
+    {
+        return rightPaddle;
+    }
+
+    /**
+     * Get the ball.
+     * @return The ball.
+     */
+    public Ball getBall()
+    {
+        return ball;
+    }
+
+    /**
+     * Get the extra balls of the multi-ball mode.
+     * @return The ball field, or null if there are no extra balls.
+     */
+    public BallField getBallField()
+    {
+        return ballField;
+    }
+
+    /**
+     * Get the score for the left paddle (player 1).
+     * @return The left score.
+     */
+    public int getLeftScore()
+    {
+        return leftScore;
+    }
+
+    /**
+     * Get the score for the right paddle (player 2).
+     * @return The right score.
+     */
+    public int getRightScore()
+    {
+        return rightScore;
+    }
+
+    /**
+     * Get the number of points scored, each of which ended a rally.
+     * @return The number of rallies.
+     */
+    public int getRallyCount()
+    {
+        return points;
+    }
+
+    /**
+     * Get the number of times the ball hit a paddle before a point was scored.
+     * @param point The point, 0 for the first.
+     * @return The length of the rally.
+     */
+    public int getRally(int point)
+    {
+        return rallies[point];
+    }
+
+    /**
+     * Get the number of times the ball has hit a paddle since the last point was scored.
+     * @return The length of the current rally.
+     */
+    public int getCurrentRally()
+    {
+        return rallyHits;
+    }
+
+    /**
+     * Determine whether a player has reached the winning score.
+     * @return True if the game is over.
+     */
+    public boolean isGameOver()
+    {
+        return gameOver;
+    }
+
+    /**
+     * Get the seed the simulation's random numbers were started from.
+     * @return The seed.
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Get the number of ticks the simulation has performed.
+     * @return The current tick.
+     */
+    public long getTick()
+    {
+        return tick;
+    }
+}
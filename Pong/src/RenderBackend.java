@@ -0,0 +1,37 @@
+import java.awt.*;
+
+/**
+ * Date: 10/17/2026
+ */
+public interface RenderBackend
+{
+    /**
+     * Get the graphics context to draw the next frame into. The frame is not
+     * visible on the screen until showFrame() is called.
+     * @return The graphics to draw the frame with, or null if nothing can be drawn yet.
+     */
+    Graphics beginFrame();
+
+    /**
+     * Show the frame drawn since beginFrame() on the screen.
+     */
+    void showFrame();
+
+    /**
+     * Determine whether the buffer returned by the last beginFrame() still holds the previous frame.
+     * If it does, only the parts of the frame that changed need to be redrawn.
+     * @return True if the previous frame is intact in the buffer.
+     */
+    boolean hasPreviousFrame();
+
+    /**
+     * Release the images and graphics held by this backend.
+     */
+    void dispose();
+
+    /**
+     * Get the name used to select this backend.
+     * @return The name of the backend.
+     */
+    String getName();
+}
@@ -0,0 +1,320 @@
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Date: 10/17/2026
+ */
+public class Replay
+{
+    /** The first four bytes of every replay file, "PONG" */
+    private static final int MAGIC = 0x504F4E47;
+    /** The version of the replay format, bump this whenever the physics change the outcome of a replay */
+    private static final int VERSION = 2;
+
+    /** The bit set in a tick's inputs when the game was paused, the paddles move but the ball doesn't */
+    public static final int PAUSED = 1 << 4;
+
+    /** The seed of the recorded simulation */
+    private long seed;
+    /** The inputs for each tick, one byte per tick while recording */
+    private byte[] inputs;
+    /** The number of ticks recorded */
+    private int tickCount;
+
+    /** The final state of the recorded simulation, in the order written by writeState() */
+    private int[] finalState;
+
+    /**
+     * A Replay records the seed and the inputs of every tick of a game, which is all that is needed to
+     * play the exact same game again. The final state of the game is stored with the inputs so that a
+     * replay can check that the current physics still produce the same result bit for bit.
+     * @param seed The seed of the simulation being recorded.
+     */
+    public Replay(long seed)
+    {
+        this.seed = seed;
+        inputs = new byte[1024];
+    }
+
+    /**
+     * Record the inputs of the next tick.
+     * @param tickInputs The input bitmask for the tick, with the PAUSED bit set if the ball wasn't moved.
+     */
+    public void record(int tickInputs)
+    {
+        //Grow the inputs as the game goes on
+        if (tickCount == inputs.length)
+        {
+            inputs = Arrays.copyOf(inputs, inputs.length * 2);
+        }
+        inputs[tickCount] = (byte) tickInputs;
+        tickCount++;
+    }
+
+    /**
+     * Apply a recorded tick to a simulation.
+     * @param sim The simulation to update.
+     * @param tick The tick to apply.
+     */
+    public void apply(PongSimulation sim, int tick)
+    {
+        int tickInputs = inputs[tick];
+        if ((tickInputs & PAUSED) != 0)
+        {
+            sim.updatePaddles(tickInputs);
+        }
+        else
+        {
+            sim.update(tickInputs);
+        }
+    }
+
+    /**
+     * Store the final state of the recorded simulation, this is done once recording has finished.
+     * @param sim The recorded simulation.
+     */
+    public void finish(PongSimulation sim)
+    {
+        finalState = captureState(sim);
+    }
+
+    /**
+     * Determine whether a simulation has ended up in exactly the recorded final state.
+     * @param sim The simulation that was replayed.
+     * @return True if every part of the state matches.
+     */
+    public boolean matches(PongSimulation sim)
+    {
+        return Arrays.equals(finalState, captureState(sim));
+    }
+
+    /**
+     * Get the state of a simulation that a replay must reproduce.
+     * @param sim The simulation.
+     * @return The tick, scores, ball position and steps, and paddle positions.
+     */
+    private static int[] captureState(PongSimulation sim)
+    {
+        int[] state = new int[PongSimulation.STATE_SIZE];
+        sim.getState(state);
+        return state;
+    }
+
+    /**
+     * Save the replay to a file. The inputs rarely change from one tick to the next, so they are
+     * written as runs of a value followed by the number of ticks it was held for.
+     * @param path The file to save to.
+     * @throws IOException If the file can't be written.
+     */
+    public void save(String path) throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path))))
+        {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(seed);
+            out.writeInt(tickCount);
+
+            //Write the run-length encoded inputs
+            int tick = 0;
+            while (tick < tickCount)
+            {
+                int runStart = tick;
+                while ((tick < tickCount) && (inputs[tick] == inputs[runStart]))
+                {
+                    tick++;
+                }
+                out.writeByte(inputs[runStart]);
+                writeVarInt(out, tick - runStart);
+            }
+
+            //Write the final state to check against
+            out.writeByte(finalState.length);
+            for (int value : finalState)
+            {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    /**
+     * Load a replay from a file.
+     * @param path The file to load.
+     * @return The replay.
+     * @throws IOException If the file can't be read, isn't a replay of this version, or is corrupt.
+     */
+    public static Replay load(String path) throws IOException
+    {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path))))
+        {
+            if (in.readInt() != MAGIC)
+            {
+                throw new IOException(path + " is not a Pong replay");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION)
+            {
+                throw new IOException(path + " is a version " + version + " replay, expected version " + VERSION);
+            }
+
+            Replay replay = new Replay(in.readLong());
+            replay.tickCount = in.readInt();
+            if (replay.tickCount < 0)
+            {
+                throw new IOException(path + " is corrupt, it has " + replay.tickCount + " ticks");
+            }
+            replay.inputs = new byte[replay.tickCount];
+
+            //Expand the run-length encoded inputs, a run must hold at least one tick and end by the last tick
+            int tick = 0;
+            while (tick < replay.tickCount)
+            {
+                byte value = in.readByte();
+                int runLength = readVarInt(in);
+                if ((runLength <= 0) || (runLength > replay.tickCount - tick))
+                {
+                    throw new IOException(path + " is corrupt, a run of " + runLength + " ticks at tick " + tick
+                            + " doesn't fit in " + replay.tickCount + " ticks");
+                }
+                Arrays.fill(replay.inputs, tick, tick + runLength, value);
+                tick = tick + runLength;
+            }
+
+            int stateSize = in.readUnsignedByte();
+            if (stateSize != PongSimulation.STATE_SIZE)
+            {
+                throw new IOException(path + " is corrupt, its final state has " + stateSize + " values, expected "
+                        + PongSimulation.STATE_SIZE);
+            }
+            replay.finalState = new int[stateSize];
+            for (int i = 0; i < replay.finalState.length; i++)
+            {
+                replay.finalState[i] = in.readInt();
+            }
+            return replay;
+        }
+        catch (EOFException e)
+        {
+            throw new IOException(path + " is truncated", e);
+        }
+    }
+
+    /**
+     * Write a non-negative int using 7 bits per byte, so small values take a single byte.
+     * @param out The stream to write to.
+     * @param value The value to write.
+     * @throws IOException If the value can't be written.
+     */
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            out.writeByte((value & 0x7F) | 0x80);
+            value = value >>> 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Read an int written by writeVarInt().
+     * @param in The stream to read from.
+     * @return The value.
+     * @throws IOException If the value can't be read or is longer than an int.
+     */
+    private static int readVarInt(DataInputStream in) throws IOException
+    {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do
+        {
+            if (shift > 28)
+            {
+                throw new IOException("Variable length int is longer than 5 bytes");
+            }
+            b = in.readUnsignedByte();
+            value = value | ((b & 0x7F) << shift);
+            shift = shift + 7;
+        }
+        while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Get the seed of the recorded simulation.
+     * @return The seed.
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Get the number of ticks recorded.
+     * @return The number of ticks.
+     */
+    public int getTickCount()
+    {
+        return tickCount;
+    }
+
+    /**
+     * Replay each of the given files headless, as fast as possible, and check that every game ends in
+     * exactly the recorded state. The exit code is 1 if any replay doesn't match, so this can be used
+     * to regression test physics changes against a collection of saved games.
+     * @param args The replay files to check.
+     */
+    public static void main(String[] args)
+    {
+        try
+        {
+            args = PongConfig.init(args);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
+        if (args.length == 0)
+        {
+            System.out.println("Usage: java Replay <replay file>...");
+            return;
+        }
+
+        int mismatches = 0;
+        for (String path : args)
+        {
+            try
+            {
+                Replay replay = load(path);
+
+                //Play the game again from the same seed and inputs
+                long startTime = System.nanoTime();
+                PongSimulation sim = new PongSimulation(replay.getSeed());
+                for (int tick = 0; tick < replay.getTickCount(); tick++)
+                {
+                    replay.apply(sim, tick);
+                }
+                long elapsedTime = System.nanoTime() - startTime;
+
+                boolean matches = replay.matches(sim);
+                if (!matches)
+                {
+                    mismatches++;
+                }
+                System.out.println((matches ? "OK       " : "MISMATCH ") + path + " - " + replay.getTickCount() + " ticks in "
+                        + elapsedTime/1000000.0 + " ms, score " + sim.getLeftScore() + "/" + sim.getRightScore());
+            }
+            catch (IOException e)
+            {
+                System.out.println("Unable to read replay " + path + ": " + e.getMessage());
+                mismatches++;
+            }
+        }
+
+        if (mismatches > 0)
+        {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,441 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Date: 10/17/2026
+ */
+public class SelfPlay
+{
+    /** The bytes at the start of every results file, "PSLF" */
+    public static final int MAGIC = 0x50534C46;
+    /** The version of the results file format */
+    public static final int VERSION = 1;
+
+    /** The number of matches in each block of the results file, and handed to a worker at once */
+    private static final int BLOCK_SIZE = 4096;
+    /** The max number of ticks a match is played for before it is given up as unfinished (about 17 minutes of play) */
+    private static final int MAX_TICKS = 20000;
+    /** The number of finished blocks that can wait for the writer before the workers wait for it */
+    private static final int QUEUE_SIZE = 16;
+
+    /** The winner recorded for a match that reached MAX_TICKS without a winner */
+    public static final int UNFINISHED = 0;
+    /** The winner recorded when the left player won */
+    public static final int LEFT = 1;
+    /** The winner recorded when the right player won */
+    public static final int RIGHT = 2;
+
+    /** The controllers of the left and right paddles, an AIController keeps no state so they are shared by every worker */
+    private PaddleController leftController;
+    private PaddleController rightController;
+    /** The seed of the first match, match i is played with seed + i */
+    private long seed;
+    /** The number of matches to play */
+    private long matches;
+
+    /** The index of the next block of matches for a worker to play */
+    private AtomicLong nextBlock = new AtomicLong();
+    /** The number of matches played so far */
+    private AtomicLong played = new AtomicLong();
+    /** The finished blocks, encoded, waiting to be written */
+    private BlockingQueue<byte[]> finished = new ArrayBlockingQueue<byte[]>(QUEUE_SIZE);
+    /** The first exception or error a worker failed with, or null */
+    private volatile Throwable failure;
+
+    /**
+     * SelfPlay plays AI against AI headless across every core, for sweeps over the game's settings that need
+     * millions of matches. The matches are split into blocks of consecutive seeds which the workers take in
+     * turn, so each match is the same however many threads play it and can be watched again from its seed.
+     * Each finished block is encoded column by column (the winners, then the ticks, then the rallies) and
+     * handed to a single writer thread, which keeps the file small and lets a reader skip the columns it
+     * doesn't need.
+     * @param leftController The controller of the left paddle.
+     * @param rightController The controller of the right paddle.
+     * @param seed The seed of the first match.
+     * @param matches The number of matches to play.
+     */
+    public SelfPlay(PaddleController leftController, PaddleController rightController, long seed, long matches)
+    {
+        this.leftController = leftController;
+        this.rightController = rightController;
+        this.seed = seed;
+        this.matches = matches;
+    }
+
+    /**
+     * Play every match on a number of threads and write the results to a file, reporting the matches per second once a second.
+     * @param threads The number of worker threads.
+     * @param path The file to write the results to.
+     * @throws IOException If the file can't be written.
+     * @throws InterruptedException If interrupted while waiting for the workers.
+     * @throws IllegalStateException If a worker failed, with what it failed with as the cause.
+     */
+    public void run(int threads, String path) throws IOException, InterruptedException
+    {
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++)
+        {
+            workers[i] = new Thread(this::playBlocks, "SelfPlay-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+
+        long blocks = (matches + BLOCK_SIZE - 1)/BLOCK_SIZE;
+        long startTime = System.nanoTime();
+        long reportTime = startTime + 1000000000L;
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(path)))
+        {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(seed);
+
+            //Write the blocks as they finish, they carry their first seed so the order doesn't matter
+            for (long written = 0L; written < blocks; )
+            {
+                byte[] block = finished.poll(100, TimeUnit.MILLISECONDS);
+                //A failed worker never hands in its block, so stop instead of waiting for it forever
+                if ((block == null) && (failure != null))
+                {
+                    throw new IllegalStateException("A worker failed while playing matches", failure);
+                }
+                if (block != null)
+                {
+                    out.write(block);
+                    written++;
+                }
+
+                long now = System.nanoTime();
+                if (now - reportTime >= 0)
+                {
+                    long done = played.get();
+                    double seconds = (now - startTime)/1000000000.0;
+                    System.out.println(String.format("%d/%d matches, %.0f matches/s, %.1fM matches/hour",
+                            done, matches, done/seconds, done/seconds * 3600.0/1000000.0));
+                    reportTime = reportTime + 1000000000L;
+                }
+            }
+        }
+        for (Thread worker : workers)
+        {
+            worker.join();
+        }
+
+        double seconds = (System.nanoTime() - startTime)/1000000000.0;
+        System.out.println(String.format("Played %d matches on %d threads in %.2f s, %.0f matches/s, %.1fM matches/hour",
+                matches, threads, seconds, matches/seconds, matches/seconds * 3600.0/1000000.0));
+    }
+
+    /**
+     * Take blocks of matches until there are none left, playing each and handing it to the writer.
+     * If anything goes wrong it is kept for the writer to report, and the other workers stop too.
+     */
+    private void playBlocks()
+    {
+        try
+        {
+            Columns columns = new Columns();
+            //Each worker plays all of its matches in one simulation, reset to each match's seed
+            PongSimulation sim = new PongSimulation(seed);
+            long block;
+            while ((failure == null) && ((block = nextBlock.getAndIncrement()) * BLOCK_SIZE < matches))
+            {
+                long firstSeed = seed + block * BLOCK_SIZE;
+                int count = (int) Math.min(BLOCK_SIZE, matches - block * BLOCK_SIZE);
+                columns.reset();
+                for (int i = 0; i < count; i++)
+                {
+                    play(sim, firstSeed + i, columns);
+                    if ((i & 63) == 63)
+                    {
+                        played.addAndGet(64);
+                    }
+                }
+                played.addAndGet(count & 63);
+
+                try
+                {
+                    finished.put(columns.encode(firstSeed, count));
+                }
+                catch (InterruptedException e)
+                {
+                    return;
+                }
+            }
+        }
+        catch (Throwable e)
+        {
+            if (failure == null)
+            {
+                failure = e;
+            }
+        }
+    }
+
+    /**
+     * Play one match to the end, or until MAX_TICKS, and add its result to the columns.
+     * @param sim The worker's simulation, which is reset for the match.
+     * @param matchSeed The seed of the match.
+     * @param columns The columns of the block the match is in.
+     */
+    private void play(PongSimulation sim, long matchSeed, Columns columns)
+    {
+        sim.reset(matchSeed);
+        while (!sim.isGameOver() && (sim.getTick() < MAX_TICKS))
+        {
+            sim.update(PongSimulation.combineInputs(leftController.decide(sim, true), rightController.decide(sim, false)));
+        }
+
+        int winner = UNFINISHED;
+        if (sim.isGameOver())
+        {
+            winner = (sim.getLeftScore() > sim.getRightScore()) ? LEFT : RIGHT;
+        }
+        columns.winners.write(winner);
+        writeVarInt(columns.ticks, (int) sim.getTick());
+        writeVarInt(columns.rallies, sim.getRallyCount());
+        for (int i = 0; i < sim.getRallyCount(); i++)
+        {
+            writeVarInt(columns.rallies, sim.getRally(i));
+        }
+        //An unfinished match ends on the rally still in play
+        writeVarInt(columns.rallies, sim.getCurrentRally());
+    }
+
+    /**
+     * The columns of a block being played, each is a byte stream of one value per match.
+     */
+    private static class Columns
+    {
+        /** The winner of each match, UNFINISHED, LEFT, or RIGHT (one byte each) */
+        private ByteArrayOutputStream winners = new ByteArrayOutputStream(BLOCK_SIZE);
+        /** The number of ticks each match lasted (varints) */
+        private ByteArrayOutputStream ticks = new ByteArrayOutputStream(BLOCK_SIZE * 2);
+        /** The number of points in each match, followed by the paddle hits in each rally and in the rally
+         * left in play (varints) */
+        private ByteArrayOutputStream rallies = new ByteArrayOutputStream(BLOCK_SIZE * 12);
+
+        /**
+         * Empty the columns for the next block.
+         */
+        private void reset()
+        {
+            winners.reset();
+            ticks.reset();
+            rallies.reset();
+        }
+
+        /**
+         * Encode the block: its first seed (long), its match count (int), then each column as its length (int) and bytes.
+         * @param firstSeed The seed of the first match in the block.
+         * @param count The number of matches in the block.
+         * @return The encoded block.
+         */
+        private byte[] encode(long firstSeed, int count)
+        {
+            ByteArrayOutputStream block = new ByteArrayOutputStream(12 + 12 + winners.size() + ticks.size() + rallies.size());
+            DataOutputStream out = new DataOutputStream(block);
+            try
+            {
+                out.writeLong(firstSeed);
+                out.writeInt(count);
+                for (ByteArrayOutputStream column : new ByteArrayOutputStream[] {winners, ticks, rallies})
+                {
+                    out.writeInt(column.size());
+                    column.writeTo(out);
+                }
+            }
+            catch (IOException e)
+            {
+                //A ByteArrayOutputStream never throws
+            }
+            return block.toByteArray();
+        }
+    }
+
+    /**
+     * Read a results file and print a summary of the matches in it: the wins of each side, the mean length of
+     * a match, and the mean and longest rally.
+     * @param path The results file.
+     * @throws IOException If the file can't be read or isn't a results file.
+     */
+    public static void summarize(String path) throws IOException
+    {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path))))
+        {
+            if ((in.readInt() != MAGIC) || (in.readByte() != VERSION))
+            {
+                throw new IOException("Not a version " + VERSION + " self-play file: " + path);
+            }
+            in.readLong();
+
+            long matches = 0L;
+            long[] wins = new long[3];
+            long totalTicks = 0L;
+            long rallies = 0L;
+            long totalHits = 0L;
+            int longestRally = 0;
+            while (true)
+            {
+                int count;
+                try
+                {
+                    in.readLong();
+                    count = in.readInt();
+                }
+                catch (EOFException e)
+                {
+                    break;
+                }
+                byte[] winners = readColumn(in);
+                InputStream ticks = new ByteArrayInputStream(readColumn(in));
+                InputStream rallyColumn = new ByteArrayInputStream(readColumn(in));
+                for (int i = 0; i < count; i++)
+                {
+                    wins[winners[i]]++;
+                    totalTicks = totalTicks + readVarInt(ticks);
+                    int points = readVarInt(rallyColumn);
+                    for (int point = 0; point <= points; point++)
+                    {
+                        int hits = readVarInt(rallyColumn);
+                        //The rally left in play when the match ended is only a rally if the match was unfinished
+                        if ((point < points) || (winners[i] == UNFINISHED))
+                        {
+                            rallies++;
+                            totalHits = totalHits + hits;
+                            longestRally = Math.max(longestRally, hits);
+                        }
+                    }
+                }
+                matches = matches + count;
+            }
+
+            System.out.println(String.format("%d matches, left won %d, right won %d, %d unfinished, %.1f ticks per match, "
+                    + "%.2f hits per rally, longest rally %d hits", matches, wins[LEFT], wins[RIGHT], wins[UNFINISHED],
+                    (double) totalTicks/Math.max(1L, matches), (double) totalHits/Math.max(1L, rallies), longestRally));
+        }
+    }
+
+    /**
+     * Read a column written by Columns.encode().
+     * @param in The stream to read from.
+     * @return The bytes of the column.
+     * @throws IOException If the column can't be read.
+     */
+    private static byte[] readColumn(DataInputStream in) throws IOException
+    {
+        byte[] column = new byte[in.readInt()];
+        in.readFully(column);
+        return column;
+    }
+
+    /**
+     * Write an unsigned int using 7 bits per byte, so small values take a single byte.
+     * @param out The stream to write to.
+     * @param value The value to write.
+     */
+    private static void writeVarInt(ByteArrayOutputStream out, int value)
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            out.write((value & 0x7F) | 0x80);
+            value = value >>> 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * Read an int written by writeVarInt().
+     * @param in The stream to read from.
+     * @return The value.
+     * @throws IOException If the stream ends part way through the value.
+     */
+    private static int readVarInt(InputStream in) throws IOException
+    {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do
+        {
+            b = in.read();
+            if (b < 0)
+            {
+                throw new EOFException();
+            }
+            value = value | ((b & 0x7F) << shift);
+            shift = shift + 7;
+        }
+        while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Play AI against AI and write the results, or summarize a results file.
+     * @param args Either the number of matches (100000 by default), the left and right difficulties (easy, normal, or
+     *             hard, normal by default), the results file (selfplay.bin by default), the number of threads (the
+     *             number of cores by default), and the seed of the first match (0 by default), or -summary and a results file.
+     */
+    public static void main(String[] args)
+    {
+        try
+        {
+            args = PongConfig.init(args);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
+        String usage = "Usage: java SelfPlay [matches] [left] [right] [file] [threads] [seed]\n   or: java SelfPlay -summary file";
+        try
+        {
+            if ((args.length > 0) && args[0].equals("-summary"))
+            {
+                summarize(args[1]);
+                return;
+            }
+
+            long matches = (args.length > 0) ? Long.parseLong(args[0]) : 100000L;
+            String left = (args.length > 1) ? args[1] : "normal";
+            String right = (args.length > 2) ? args[2] : "normal";
+            String path = (args.length > 3) ? args[3] : "selfplay.bin";
+            int threads = (args.length > 4) ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+            long seed = (args.length > 5) ? Long.parseLong(args[5]) : 0L;
+
+            PaddleController leftController = AIController.fromName(left, null);
+            PaddleController rightController = AIController.fromName(right, null);
+            if (!(leftController instanceof AIController) || !(rightController instanceof AIController))
+            {
+                System.out.println("Both paddles must be played by the AI (easy, normal, or hard)\n" + usage);
+                return;
+            }
+
+            System.out.println("Playing " + matches + " matches of " + left + " vs " + right + " on " + threads + " threads");
+            new SelfPlay(leftController, rightController, seed, matches).run(threads, path);
+            summarize(path);
+        }
+        catch (NumberFormatException | ArrayIndexOutOfBoundsException e)
+        {
+            System.out.println(usage);
+        }
+        catch (IOException e)
+        {
+            System.out.println("Unable to write the results: " + e);
+        }
+        catch (InterruptedException e)
+        {
+            System.out.println("Interrupted before the matches finished");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+import java.awt.*;
+
+/**
+ * Date: 10/17/2026
+ */
+public class SoftwareBackend implements RenderBackend
+{
+    /** The component the frames are drawn onto */
+    private Component component;
+
+    /** The graphics used to double buffer/render off-screen */
+    private Graphics dbGraphics;
+    /** The image created/rendered off-screen */
+    private Image dbImage;
+    /** Determines if the dbImage holds the previous frame */
+    private boolean hasPreviousFrame;
+
+    /**
+     * A backend that draws each frame into an image created by the component and then
+     * copies the entire image onto the screen. This works everywhere and is the fallback
+     * when the accelerated backends are unavailable.
+     * @param component The component the frames are drawn onto.
+     */
+    public SoftwareBackend(Component component)
+    {
+        this.component = component;
+    }
+
+    /**
+     * Get the graphics for the off-screen image. If it does not already exist, the
+     * image is created the size of the PongPanel.
+     * @return The graphics to draw the frame with, or null if the image can't be created yet.
+     */
+    public Graphics beginFrame()
+    {
+        //If the double buffered image has not been created yet
+        if (dbImage == null)
+        {
+            //Make an image to fit the panel
+            dbImage = component.createImage(PongPanel.PWIDTH, PongPanel.PHEIGHT);
+            if (dbImage == null)
+            {
+                return null;
+            }
+            else
+            {
+                //Get the graphics context to draw the dbImage offscreen
+                dbGraphics = dbImage.getGraphics();
+                hasPreviousFrame = false;
+            }
+        }
+        return dbGraphics;
+    }
+
+    /**
+     * Actively render/draw the dbImage onto the screen/component.
+     */
+    public void showFrame()
+    {
+        //Get the graphics context from the component
+        Graphics g = component.getGraphics();
+        if (g != null)
+        {
+            if (dbImage != null)
+            {
+                //Draw the game screen as an entire image
+                g.drawImage(dbImage, 0, 0, null);
+                hasPreviousFrame = true;
+            }
+            Toolkit.getDefaultToolkit().sync(); //Sync the display (only applies to odd systems)
+            g.dispose();
+        }
+    }
+
+    /**
+     * Determine whether the dbImage still holds the previous frame, which is always
+     * the case once it has been drawn into.
+     * @return True if the previous frame is intact in the dbImage.
+     */
+    public boolean hasPreviousFrame()
+    {
+        return hasPreviousFrame;
+    }
+
+    /**
+     * Release the off-screen image.
+     */
+    public void dispose()
+    {
+        if (dbImage != null)
+        {
+            dbGraphics.dispose();
+            dbImage.flush();
+            dbImage = null;
+        }
+    }
+
+    /**
+     * Get the name used to select this backend.
+     * @return "software"
+     */
+    public String getName()
+    {
+        return "software";
+    }
+}
@@ -0,0 +1,190 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Date: 10/17/2026
+ */
+public class SpriteCache
+{
+    /** The width of the line down the center of the field */
+    private static final int LINE_WIDTH = 2;
+    /** The color of the line down the center of the field */
+    private static final Color LINE_COLOR = Color.WHITE;
+    /** The color of the ball */
+    private static final Color BALL_COLOR = Color.WHITE;
+    /** The color of the paddles */
+    private static final Color PADDLE_COLOR = Color.WHITE;
+    /** The color of the extra balls of the multi-ball mode, translucent so the main ball stands out */
+    private static final Color FIELD_COLOR = new Color(255, 255, 255, 160);
+
+    /** The component the sprites are drawn onto, used to create images compatible with its display */
+    private Component component;
+
+    /** The pre-rendered ball, and the diameter it was rendered with */
+    private BufferedImage ballSprite;
+    private int ballDiameter;
+
+    /** The pre-rendered paddle, both paddles look the same, and the size it was rendered with */
+    private BufferedImage paddleSprite;
+    private int paddleWidth;
+    private int paddleHeight;
+
+    /** The pre-rendered center line, and the height it was rendered with */
+    private BufferedImage lineSprite;
+    private int lineHeight;
+
+    /**
+     * A SpriteCache draws the ball, paddles, and center line by copying images of them rendered once,
+     * instead of filling an oval and the several rectangles of a 3D rect every frame. The images are
+     * compatible with the component's display so copying them is as fast as possible, and each is only
+     * rendered again if the size of what it shows changes. The colors of the game live here rather than in
+     * the simulation, which only holds state, and the static methods draw the same elements as shapes.
+     * @param component The component the sprites are drawn onto.
+     */
+    public SpriteCache(Component component)
+    {
+        this.component = component;
+    }
+
+    /**
+     * Forget the sprites so they are rendered again the next time they are drawn, this is needed when
+     * the component moves to a display they are no longer compatible with.
+     */
+    public void clear()
+    {
+        ballSprite = null;
+        ballDiameter = 0;
+        paddleSprite = null;
+        paddleWidth = 0;
+        lineSprite = null;
+        lineHeight = 0;
+    }
+
+    /**
+     * Draw the ball, interpolated between its previous and current position.
+     * @param dbGraphics The graphics to draw with.
+     * @param ball The ball.
+     * @param interpolation How far the time is between the last update and the next (0.0 to 1.0).
+     */
+    public void drawBall(Graphics dbGraphics, Ball ball, double interpolation)
+    {
+        if (ball.getDiameter() != ballDiameter)
+        {
+            ballDiameter = ball.getDiameter();
+            //The corners around the ball are left transparent, a bitmask is all it needs and is the fastest to copy
+            ballSprite = createImage(ballDiameter, ballDiameter, Transparency.BITMASK);
+            Graphics spriteGraphics = ballSprite.createGraphics();
+            spriteGraphics.setColor(BALL_COLOR);
+            spriteGraphics.fillOval(0, 0, ballDiameter, ballDiameter);
+            spriteGraphics.dispose();
+        }
+        dbGraphics.drawImage(ballSprite, ball.getDrawX(interpolation), ball.getDrawY(interpolation), null);
+    }
+
+    /**
+     * Draw a paddle, interpolated between its previous and current position.
+     * @param dbGraphics The graphics to draw with.
+     * @param paddle The paddle.
+     * @param interpolation How far the time is between the last update and the next (0.0 to 1.0).
+     */
+    public void drawPaddle(Graphics dbGraphics, Paddle paddle, double interpolation)
+    {
+        if ((paddle.getWidth() != paddleWidth) || (paddle.getHeight() != paddleHeight))
+        {
+            paddleWidth = paddle.getWidth();
+            paddleHeight = paddle.getHeight();
+            paddleSprite = createImage(paddleWidth, paddleHeight, Transparency.OPAQUE);
+            Graphics spriteGraphics = paddleSprite.createGraphics();
+            spriteGraphics.setColor(PADDLE_COLOR);
+            spriteGraphics.fill3DRect(0, 0, paddleWidth, paddleHeight, true);
+            spriteGraphics.dispose();
+        }
+        dbGraphics.drawImage(paddleSprite, paddle.getXPos(), paddle.getDrawY(interpolation), null);
+    }
+
+    /**
+     * Draw the line down the center of the field.
+     * @param dbGraphics The graphics to draw with.
+     */
+    public void drawCenterLine(Graphics dbGraphics)
+    {
+        if (lineHeight != PongSimulation.PHEIGHT)
+        {
+            lineHeight = PongSimulation.PHEIGHT;
+            lineSprite = createImage(LINE_WIDTH, lineHeight, Transparency.OPAQUE);
+            Graphics spriteGraphics = lineSprite.createGraphics();
+            spriteGraphics.setColor(LINE_COLOR);
+            spriteGraphics.fillRect(0, 0, LINE_WIDTH, lineHeight);
+            spriteGraphics.dispose();
+        }
+        dbGraphics.drawImage(lineSprite, PongSimulation.PWIDTH/2, 0, null);
+    }
+
+    /**
+     * Draw the ball as a filled oval, interpolated between its previous and current position.
+     * @param dbGraphics The graphics to draw with.
+     * @param ball The ball.
+     * @param interpolation How far the time is between the last update and the next (0.0 to 1.0).
+     */
+    public static void fillBall(Graphics dbGraphics, Ball ball, double interpolation)
+    {
+        dbGraphics.setColor(BALL_COLOR);
+        dbGraphics.fillOval(ball.getDrawX(interpolation), ball.getDrawY(interpolation), ball.getDiameter(), ball.getDiameter());
+    }
+
+    /**
+     * Draw a paddle as a raised 3D rectangle, interpolated between its previous and current position.
+     * @param dbGraphics The graphics to draw with.
+     * @param paddle The paddle.
+     * @param interpolation How far the time is between the last update and the next (0.0 to 1.0).
+     */
+    public static void fillPaddle(Graphics dbGraphics, Paddle paddle, double interpolation)
+    {
+        dbGraphics.setColor(PADDLE_COLOR);
+        dbGraphics.fill3DRect(paddle.getXPos(), paddle.getDrawY(interpolation), paddle.getWidth(), paddle.getHeight(), true);
+    }
+
+    /**
+     * Draw the line down the center of the field as a filled rectangle.
+     * @param dbGraphics The graphics to draw with.
+     */
+    public static void fillCenterLine(Graphics dbGraphics)
+    {
+        dbGraphics.setColor(LINE_COLOR);
+        dbGraphics.fillRect(PongSimulation.PWIDTH/2, 0, LINE_WIDTH, PongSimulation.PHEIGHT);
+    }
+
+    /**
+     * Draw the extra balls of the multi-ball mode, interpolated between their previous and current positions.
+     * There are thousands and they are only a few pixels across, so they are drawn as squares, which is much faster.
+     * @param dbGraphics The graphics to draw with.
+     * @param field The field of extra balls.
+     * @param interpolation How far the time is between the last update and the next (0.0 to 1.0).
+     */
+    public static void fillField(Graphics dbGraphics, BallField field, double interpolation)
+    {
+        dbGraphics.setColor(FIELD_COLOR);
+        int diameter = field.getDiameter();
+        for (int i = 0; i < field.getCount(); i++)
+        {
+            dbGraphics.fillRect(field.getDrawX(i, interpolation), field.getDrawY(i, interpolation), diameter, diameter);
+        }
+    }
+
+    /**
+     * Create an image for a sprite, compatible with the component's display when it has one.
+     * @param width The width of the image.
+     * @param height The height of the image.
+     * @param transparency The transparency the sprite needs, from Transparency.
+     * @return The image.
+     */
+    private BufferedImage createImage(int width, int height, int transparency)
+    {
+        GraphicsConfiguration gc = component.getGraphicsConfiguration();
+        if (gc != null)
+        {
+            return gc.createCompatibleImage(width, height, transparency);
+        }
+        return new BufferedImage(width, height, (transparency == Transparency.OPAQUE) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
+}
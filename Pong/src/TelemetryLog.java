@@ -0,0 +1,285 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Date: 10/17/2026
+ */
+public class TelemetryLog
+{
+    /** The bytes at the start of every telemetry log, "PTLM" */
+    public static final int MAGIC = 0x50544C4D;
+    /** The version of the telemetry log format */
+    public static final int VERSION = 1;
+
+    /** The event logged when a simulation starts being logged, every game in the log starts with one */
+    public static final int START = 0;
+    /** The event logged when the ball is served from the center, the side is the player it is served towards */
+    public static final int SERVE = 1;
+    /** The event logged when the ball bounces off a paddle, with its new steps, the value is the number of hits in the rally so far */
+    public static final int PADDLE_HIT = 2;
+    /** The event logged for each bounce off the top or bottom of the field, even several in one tick, the value is 0 for the top and 1 for the bottom */
+    public static final int WALL_BOUNCE = 3;
+    /** The event logged when a point is scored, the side is the player that scored and the value the hits in the rally */
+    public static final int SCORE = 4;
+    /** The event logged when the game ends, the side is the winner and the value the scores (left * 256 + right) */
+    public static final int GAME_OVER = 5;
+    /** The names of the events */
+    private static final String[] EVENT_NAMES = {"start", "serve", "paddle hit", "wall bounce", "score", "game over"};
+
+    /** The side logged for the left player, the right player, or neither */
+    public static final int LEFT = 0;
+    public static final int RIGHT = 1;
+    public static final int NONE = 2;
+
+    /** The size of the file header: the magic, the version, and the length of the log */
+    private static final int HEADER_SIZE = 16;
+    /** The size of each event: the tick (int), the event and side (bytes), and the ball's x, y, xStep, yStep, and a value (shorts) */
+    public static final int EVENT_SIZE = 16;
+    /** The size of each region of the file mapped at once, a multiple of EVENT_SIZE */
+    private static final int REGION_SIZE = 64 << 20;
+
+    /** The file the log is written to */
+    private RandomAccessFile file;
+    /** The channel the regions are mapped through */
+    private FileChannel channel;
+    /** The mapped header, the length in it is updated after every event so a reader never sees half of one */
+    private MappedByteBuffer header;
+    /** The mapped region events are being appended to */
+    private MappedByteBuffer region;
+    /** The position in the file the region starts at */
+    private long regionStart;
+    /** The position in the region the next event is written at */
+    private int regionPosition;
+    /** The length of the log, the header plus every event */
+    private long length = HEADER_SIZE;
+    /** Determines if the log has stopped, because it was closed or a region couldn't be mapped */
+    private boolean stopped;
+
+    /**
+     * A TelemetryLog records the events of games as fixed-size binary records in an append-only file. The file
+     * is memory-mapped a large region at a time, so appending an event is a handful of stores into memory with no
+     * system call or allocation, and the operating system writes the pages out in the background. The events hold
+     * the tick and the ball's position and steps, so a whole game's rallies can be analyzed afterwards.
+     * @param path The file to write the log to, any existing file is replaced.
+     * @throws IOException If the file can't be created or mapped.
+     */
+    public TelemetryLog(String path) throws IOException
+    {
+        file = new RandomAccessFile(path, "rw");
+        file.setLength(0L);
+        channel = file.getChannel();
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0L, HEADER_SIZE);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putLong(8, length);
+        mapRegion(HEADER_SIZE);
+    }
+
+    /**
+     * Append an event. This is called from the tick loop, so it never allocates unless it has to map the next region.
+     * @param tick The tick the event happened in.
+     * @param event The event, one of START, SERVE, PADDLE_HIT, WALL_BOUNCE, SCORE, or GAME_OVER.
+     * @param side The side the event belongs to, LEFT, RIGHT, or NONE.
+     * @param x The x-coordinate of the ball.
+     * @param y The y-coordinate of the ball.
+     * @param xStep The ball's xStep.
+     * @param yStep The ball's yStep.
+     * @param value A value that depends on the event.
+     */
+    public void append(long tick, int event, int side, int x, int y, int xStep, int yStep, int value)
+    {
+        if (stopped)
+        {
+            return;
+        }
+        if (regionPosition == REGION_SIZE)
+        {
+            try
+            {
+                mapRegion(regionStart + REGION_SIZE);
+            }
+            catch (IOException e)
+            {
+                System.out.println("Telemetry stopped, unable to grow the log: " + e);
+                stopped = true;
+                return;
+            }
+        }
+
+        MappedByteBuffer r = region;
+        int p = regionPosition;
+        r.putInt(p, (int) tick);
+        r.put(p + 4, (byte) event);
+        r.put(p + 5, (byte) side);
+        r.putShort(p + 6, (short) x);
+        r.putShort(p + 8, (short) y);
+        r.putShort(p + 10, (short) xStep);
+        r.putShort(p + 12, (short) yStep);
+        r.putShort(p + 14, (short) value);
+        regionPosition = p + EVENT_SIZE;
+        length = length + EVENT_SIZE;
+        header.putLong(8, length);
+    }
+
+    /**
+     * Map the next region of the file to append to.
+     * @param start The position in the file the region starts at.
+     * @throws IOException If the region can't be mapped.
+     */
+    private void mapRegion(long start) throws IOException
+    {
+        region = channel.map(FileChannel.MapMode.READ_WRITE, start, REGION_SIZE);
+        regionStart = start;
+        regionPosition = 0;
+    }
+
+    /**
+     * Get the number of events appended.
+     * @return The number of events.
+     */
+    public long getEventCount()
+    {
+        return (length - HEADER_SIZE)/EVENT_SIZE;
+    }
+
+    /**
+     * Stop appending, and cut the file down to the events written, the mapped pages are written out by the OS.
+     * @throws IOException If the file can't be truncated or closed.
+     */
+    public void close() throws IOException
+    {
+        if (file == null)
+        {
+            return;
+        }
+        stopped = true;
+        header.force();
+        region = null;
+        header = null;
+        //The mapping can outlive the channel, truncating a mapped file is fine everywhere except Windows
+        try
+        {
+            channel.truncate(length);
+        }
+        catch (IOException e)
+        {
+            //The log is still readable, the header says where it ends
+        }
+        file.close();
+        file = null;
+    }
+
+    /**
+     * Read a telemetry log and print statistics of the rallies in it: the number of games and events of each
+     * kind, the wins of each side, and the distributions of paddle hits, wall bounces, and ticks per rally.
+     * @param path The log file.
+     * @throws IOException If the file can't be read or isn't a telemetry log.
+     */
+    public static void summarize(String path) throws IOException
+    {
+        long startTime = System.nanoTime();
+        try (RandomAccessFile in = new RandomAccessFile(path, "r"); FileChannel channel = in.getChannel())
+        {
+            ByteBuffer headerBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, HEADER_SIZE);
+            if ((headerBuffer.getInt(0) != MAGIC) || (headerBuffer.getInt(4) != VERSION))
+            {
+                throw new IOException("Not a version " + VERSION + " telemetry log: " + path);
+            }
+            long end = Math.min(headerBuffer.getLong(8), channel.size());
+
+            long[] eventCounts = new long[EVENT_NAMES.length];
+            long[] wins = new long[2];
+            LatencyHistogram rallyHits = new LatencyHistogram();
+            LatencyHistogram rallyBounces = new LatencyHistogram();
+            LatencyHistogram rallyTicks = new LatencyHistogram();
+            long serveTick = -1L;
+            long bounces = 0L;
+
+            for (long start = HEADER_SIZE; start < end; start = start + REGION_SIZE)
+            {
+                ByteBuffer events = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, end - start));
+                for (int p = 0; p + EVENT_SIZE <= events.limit(); p = p + EVENT_SIZE)
+                {
+                    int event = events.get(p + 4);
+                    if ((event < 0) || (event >= EVENT_NAMES.length))
+                    {
+                        throw new IOException("Unknown event " + event + " at " + (start + p) + " in " + path);
+                    }
+                    eventCounts[event]++;
+                    long tick = events.getInt(p) & 0xFFFFFFFFL;
+
+                    //A rally runs from a serve to the next point
+                    if ((event == START) || (event == SERVE))
+                    {
+                        serveTick = tick;
+                        bounces = 0L;
+                    }
+                    else if (event == WALL_BOUNCE)
+                    {
+                        bounces++;
+                    }
+                    else if ((event == SCORE) && (serveTick >= 0L))
+                    {
+                        rallyHits.record(events.getShort(p + 14) & 0xFFFF);
+                        rallyBounces.record(bounces);
+                        rallyTicks.record(tick - serveTick + 1);
+                        serveTick = -1L;
+                    }
+                    else if (event == GAME_OVER)
+                    {
+                        wins[events.get(p + 5) & 1]++;
+                    }
+                }
+            }
+
+            long totalEvents = (end - HEADER_SIZE)/EVENT_SIZE;
+            double seconds = (System.nanoTime() - startTime)/1000000000.0;
+            StringBuilder counts = new StringBuilder();
+            for (int i = 0; i < EVENT_NAMES.length; i++)
+            {
+                counts.append((i > 0) ? ", " : "").append(eventCounts[i]).append(' ').append(EVENT_NAMES[i]);
+            }
+            System.out.println(totalEvents + " events read in " + String.format("%.2f s (%.1fM events/s)", seconds, totalEvents/seconds/1000000.0));
+            System.out.println(counts);
+            System.out.println(eventCounts[START] + " games, " + eventCounts[GAME_OVER] + " finished, left won " + wins[LEFT] + ", right won " + wins[RIGHT]);
+            printRallies("Hits per rally", rallyHits);
+            printRallies("Wall bounces per rally", rallyBounces);
+            printRallies("Ticks per rally", rallyTicks);
+        }
+    }
+
+    /**
+     * Print the distribution of a rally statistic.
+     * @param name The name of the statistic.
+     * @param histogram The histogram of the statistic, one value per rally.
+     */
+    private static void printRallies(String name, LatencyHistogram histogram)
+    {
+        System.out.println(String.format("%-24s %d rallies, mean %.2f, p50 %d, p99 %d, max %d", name, histogram.getCount(),
+                histogram.getMean(), histogram.getValueAtPercentile(50.0), histogram.getValueAtPercentile(99.0), histogram.getMax()));
+    }
+
+    /**
+     * Print statistics of the rallies in a telemetry log.
+     * @param args The log file.
+     */
+    public static void main(String[] args)
+    {
+        if (args.length == 0)
+        {
+            System.out.println("Usage: java TelemetryLog <log file>");
+            return;
+        }
+        try
+        {
+            summarize(args[0]);
+        }
+        catch (IOException e)
+        {
+            System.out.println("Unable to read the telemetry log: " + e.getMessage());
+        }
+    }
+}
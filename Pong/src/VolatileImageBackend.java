@@ -0,0 +1,124 @@
+import java.awt.*;
+import java.awt.image.VolatileImage;
+
+/**
+ * Date: 10/17/2026
+ */
+public class VolatileImageBackend implements RenderBackend
+{
+    /** The component the frames are drawn onto */
+    private Component component;
+
+    /** The accelerated image the frames are rendered into off-screen */
+    private VolatileImage vImage;
+    /** The graphics for the frame currently being drawn */
+    private Graphics2D vGraphics;
+    /** Determines if the vImage holds the previous frame */
+    private boolean hasPreviousFrame;
+
+    /**
+     * A backend that draws each frame into a VolatileImage, which is kept in video memory when
+     * the display supports it. The image can lose its contents at any time (e.g. when the display
+     * mode changes), so it is validated before each frame and the frame is dropped if it was lost.
+     * @param component The component the frames are drawn onto.
+     */
+    public VolatileImageBackend(Component component)
+    {
+        this.component = component;
+    }
+
+    /**
+     * Validate the volatile image, recreating it if it has become incompatible with the
+     * display, and get a graphics context for it.
+     * @return The graphics to draw the frame with, or null if the image can't be created yet.
+     */
+    public Graphics beginFrame()
+    {
+        GraphicsConfiguration gc = component.getGraphicsConfiguration();
+        if (gc == null)
+        {
+            return null;
+        }
+
+        //Create the image, or recreate it if it no longer works with the component's display
+        int validation = (vImage == null) ? VolatileImage.IMAGE_INCOMPATIBLE : vImage.validate(gc);
+        if (validation == VolatileImage.IMAGE_INCOMPATIBLE)
+        {
+            if (vImage != null)
+            {
+                vImage.flush();
+            }
+            vImage = gc.createCompatibleVolatileImage(PongPanel.PWIDTH, PongPanel.PHEIGHT);
+            hasPreviousFrame = false;
+        }
+        else if (validation == VolatileImage.IMAGE_RESTORED)
+        {
+            //The image is usable again, but whatever was drawn into it is gone
+            hasPreviousFrame = false;
+        }
+
+        vGraphics = vImage.createGraphics();
+        return vGraphics;
+    }
+
+    /**
+     * Draw the volatile image onto the screen/component, unless its contents were lost while the frame
+     * was being drawn. A lost frame is simply skipped, the next frame redraws everything.
+     */
+    public void showFrame()
+    {
+        if (vGraphics == null)
+        {
+            return;
+        }
+        vGraphics.dispose();
+        vGraphics = null;
+
+        Graphics g = component.getGraphics();
+        if (g != null)
+        {
+            if (!vImage.contentsLost())
+            {
+                g.drawImage(vImage, 0, 0, null);
+                hasPreviousFrame = true;
+            }
+            else
+            {
+                hasPreviousFrame = false;
+            }
+            Toolkit.getDefaultToolkit().sync(); //Sync the display (only applies to odd systems)
+            g.dispose();
+        }
+    }
+
+    /**
+     * Determine whether the vImage still holds the previous frame. This is not the case
+     * after the image has been created, restored, or has lost its contents.
+     * @return True if the previous frame is intact in the vImage.
+     */
+    public boolean hasPreviousFrame()
+    {
+        return hasPreviousFrame;
+    }
+
+    /**
+     * Release the volatile image.
+     */
+    public void dispose()
+    {
+        if (vImage != null)
+        {
+            vImage.flush();
+            vImage = null;
+        }
+    }
+
+    /**
+     * Get the name used to select this backend.
+     * @return "volatile"
+     */
+    public String getName()
+    {
+        return "volatile";
+    }
+}
@@ -0,0 +1,111 @@
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Date: 10/17/2026
+ */
+public enum WaitStrategy
+{
+    /** Sleep with Thread.sleep(), which most JVMs round to the OS timer, so wakeups are often late by up to a
+     * millisecond or more. This uses the least CPU. */
+    SLEEP
+    {
+        public void waitUntil(long deadline)
+        {
+            long sleepTime = deadline - System.nanoTime();
+            if (sleepTime > 0)
+            {
+                try
+                {
+                    Thread.sleep(sleepTime/1000000L, (int) (sleepTime % 1000000L)); //nano -> ms + nanos
+                }
+                catch (InterruptedException e)
+                {
+                    //Do nothing
+                }
+            }
+        }
+    },
+
+    /** Park with LockSupport.parkNanos(), which isn't limited to whole milliseconds but still depends on the
+     * OS timer slack. Parking again after an early return keeps it from waking before the deadline. */
+    PARK
+    {
+        public void waitUntil(long deadline)
+        {
+            parkUntil(deadline);
+        }
+    },
+
+    /** Park until shortly before the deadline and spin for the rest, this wakes within a few microseconds
+     * of the deadline while only burning CPU for the last SPIN_THRESHOLD of each wait. */
+    HYBRID
+    {
+        public void waitUntil(long deadline)
+        {
+            parkUntil(deadline - SPIN_THRESHOLD);
+            spinUntil(deadline);
+        }
+    },
+
+    /** Spin until the deadline, this has the smallest pacing error but keeps a core busy the whole time. */
+    SPIN
+    {
+        public void waitUntil(long deadline)
+        {
+            spinUntil(deadline);
+        }
+    };
+
+    /** The time before a deadline that the HYBRID strategy stops parking and starts spinning (in nanos) */
+    private static final long SPIN_THRESHOLD = 1500000L;
+
+    /**
+     * Wait until the given time, or return straight away if it has passed.
+     * @param deadline The time to wait until, as given by System.nanoTime() (in nanos).
+     */
+    public abstract void waitUntil(long deadline);
+
+    /**
+     * Park the current thread until the given time. The interrupt status is cleared if the thread is interrupted,
+     * otherwise parkNanos() would return straight away for the rest of the wait.
+     * @param deadline The time to park until (in nanos).
+     */
+    private static void parkUntil(long deadline)
+    {
+        long parkTime;
+        while ((parkTime = deadline - System.nanoTime()) > 0)
+        {
+            LockSupport.parkNanos(parkTime);
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Busy-wait until the given time, hinting to the CPU that the thread is spinning.
+     * @param deadline The time to spin until (in nanos).
+     */
+    private static void spinUntil(long deadline)
+    {
+        while (deadline - System.nanoTime() > 0)
+        {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Get the wait strategy with the given name. The SLEEP strategy is used if the name is not recognized.
+     * @param name The name of the strategy, in any case.
+     * @return The wait strategy.
+     */
+    public static WaitStrategy fromName(String name)
+    {
+        for (WaitStrategy strategy : values())
+        {
+            if (strategy.name().equalsIgnoreCase(name))
+            {
+                return strategy;
+            }
+        }
+        return SLEEP;
+    }
+}